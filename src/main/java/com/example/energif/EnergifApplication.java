@@ -2,8 +2,10 @@ package com.example.energif;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication
+@EnableCaching
 public class EnergifApplication {
 
 	public static void main(String[] args) {
@@ -26,13 +26,21 @@ public class CampusEditalTurno {
     private Integer numeroVagasClassificadoFeminino = 0;
     private Integer numeroVagasHabilitadoMasculino = 0;
     private Integer numeroVagasHabilitadoFeminino = 0;
+    // sem uso: a vaga reservada (cadastro de reserva) conta em numeroVagasCadastroReserva
     private Integer numeroVagasReservado = 0;
 
-    // Contadores de ocupação para as novas categorias
+    // Contadores de ocupação para as novas categorias. Só mudam por SQL
+    // (CampusEditalTurnoRepository.reservarVaga/liberarVaga e a alocação do
+    // edital); salvar a entidade não regrava o valor lido antes.
+    @Column(updatable = false)
     private Integer vagasClassificadoMasculinoOcupadas = 0;
+    @Column(updatable = false)
     private Integer vagasClassificadoFemininoOcupadas = 0;
+    @Column(updatable = false)
     private Integer vagasHabilitadoMasculinoOcupadas = 0;
+    @Column(updatable = false)
     private Integer vagasHabilitadoFemininoOcupadas = 0;
+    @Column(updatable = false)
     private Integer vagasReservadoOcupadas = 0;
 
     private Integer vagasReservadasOcupadas = 0;
@@ -232,7 +240,7 @@ public class CampusEditalTurno {
     }
 
     public int getVagasReservadoDisponiveis() {
-        return Math.max(0, getNumeroVagasReservado() - getVagasReservadoOcupadas());
+        return Math.max(0, getNumeroVagasCadastroReserva() - getVagasReservadoOcupadas());
     }
 
     public int getVagasClassificadoOcupadas() {
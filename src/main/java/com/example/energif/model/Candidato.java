@@ -5,6 +5,7 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -24,7 +25,7 @@ public class Candidato {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "candidato_seq")
-    @SequenceGenerator(name = "candidato_seq", sequenceName = "candidato_seq", allocationSize = 1)
+    @SequenceGenerator(name = "candidato_seq", sequenceName = "candidato_seq", allocationSize = 50)
     private Long id;
 
     private String nome;
@@ -52,6 +53,10 @@ public class Candidato {
     @Enumerated(EnumType.STRING)
     private TipoVaga tipoVaga; // "RESERVADA" ou "AMPLA_CONCORRENCIA"
 
+    // Hash da linha da planilha, preenchido pela importação em modo atualização
+    @Column(name = "hash_conteudo", length = 32)
+    private String hashConteudo;
+
     // O candidato automaticamente concorre às vagas do seu campus
 
     // Método para obter as vagas disponíveis do campus
@@ -176,5 +181,13 @@ public class Candidato {
         this.motivoNaoClassificacao = motivo;
     }
 
+    public String getHashConteudo() {
+        return this.hashConteudo;
+    }
+
+    public void setHashConteudo(String hashConteudo) {
+        this.hashConteudo = hashConteudo;
+    }
+
 
 }
\ No newline at end of file
@@ -4,10 +4,21 @@ import com.example.energif.model.CampusEdital;
 import com.example.energif.model.Campus;
 import com.example.energif.model.Edital;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CampusEditalRepository extends JpaRepository<CampusEdital, Long> {
     CampusEdital findByCampusAndEdital(Campus campus, Edital edital);
     java.util.List<CampusEdital> findAllByEditalId(Long editalId);
     java.util.List<CampusEdital> findAllByCampusId(Long campusId);
     java.util.List<CampusEdital> findAllByEditalIdAndCampusId(Long editalId, Long campusId);
+
+    @Query("select ce from CampusEdital ce join fetch ce.campus join fetch ce.edital where ce.edital.id = :editalId")
+    java.util.List<CampusEdital> findAllByEditalIdComCampus(@Param("editalId") Long editalId);
+
+    // Tela de turnos: vínculos com campus, edital e turnos carregados juntos (filtros opcionais)
+    @Query("select ce from CampusEdital ce join fetch ce.campus c join fetch ce.edital e left join fetch ce.turnos t " +
+            "where (:editalId is null or e.id = :editalId) and (:campusId is null or c.id = :campusId) " +
+            "order by e.id, c.nome, t.id")
+    java.util.List<CampusEdital> findAllComTurnos(@Param("editalId") Long editalId, @Param("campusId") Long campusId);
 }
@@ -4,7 +4,9 @@ import com.example.energif.model.Campus;
 import com.example.energif.model.CampusEdital;
 import com.example.energif.model.CampusEditalTurno;
 import com.example.energif.model.Edital;
+import com.example.energif.model.TipoVaga;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -18,4 +20,91 @@ public interface CampusEditalTurnoRepository extends JpaRepository<CampusEditalT
     CampusEditalTurno findByCampusAndEditalAndTurno(@Param("campus") Campus campus, @Param("edital") Edital edital, @Param("turno") String turno);
 
     List<CampusEditalTurno> findByCampusEditalId(Long campusEditalId);
+
+    @Query("select t from CampusEditalTurno t join fetch t.campusEdital ce join fetch ce.campus join fetch ce.edital where ce.edital.id = :editalId")
+    List<CampusEditalTurno> findAllByEditalId(@Param("editalId") Long editalId);
+
+    // Quadro de vagas: todos os turnos com campus e edital em um único SELECT, já na ordem da tela
+    @Query("select t from CampusEditalTurno t join fetch t.campusEdital ce join fetch ce.campus c join fetch ce.edital e " +
+            "order by c.nome, coalesce(e.descricao, 'Sem Edital'), t.turno")
+    List<CampusEditalTurno> findQuadroVagas();
+
+    /**
+     * Ocupa uma vaga do tipo no turno se ainda houver uma livre. A conferência
+     * e o incremento são um único UPDATE condicional, então marcações
+     * simultâneas no mesmo turno não perdem incrementos nem vendem a mesma
+     * vaga duas vezes. Devolve false quando o tipo já está lotado.
+     */
+    default boolean reservarVaga(Long turnoId, TipoVaga tipo) {
+        return switch (tipo) {
+            case CLASSIFICADO_MASCULINO -> reservarVagaClassificadoMasculino(turnoId);
+            case CLASSIFICADO_FEMININO -> reservarVagaClassificadoFeminino(turnoId);
+            case HABILITADO_MASCULINO -> reservarVagaHabilitadoMasculino(turnoId);
+            case HABILITADO_FEMININO -> reservarVagaHabilitadoFeminino(turnoId);
+            case RESERVADO -> reservarVagaReservado(turnoId);
+            default -> throw new IllegalArgumentException("Tipo de vaga sem contador: " + tipo);
+        } == 1;
+    }
+
+    /** Devolve uma vaga do tipo ao turno, sem deixar o contador negativo. */
+    default boolean liberarVaga(Long turnoId, TipoVaga tipo) {
+        return switch (tipo) {
+            case CLASSIFICADO_MASCULINO -> liberarVagaClassificadoMasculino(turnoId);
+            case CLASSIFICADO_FEMININO -> liberarVagaClassificadoFeminino(turnoId);
+            case HABILITADO_MASCULINO -> liberarVagaHabilitadoMasculino(turnoId);
+            case HABILITADO_FEMININO -> liberarVagaHabilitadoFeminino(turnoId);
+            case RESERVADO -> liberarVagaReservado(turnoId);
+            default -> throw new IllegalArgumentException("Tipo de vaga sem contador: " + tipo);
+        } == 1;
+    }
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_classificado_masculino_ocupadas = coalesce(vagas_classificado_masculino_ocupadas, 0) + 1 " +
+            "where id = :id and coalesce(vagas_classificado_masculino_ocupadas, 0) < coalesce(numero_vagas_classificado_masculino, 0)", nativeQuery = true)
+    int reservarVagaClassificadoMasculino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_classificado_feminino_ocupadas = coalesce(vagas_classificado_feminino_ocupadas, 0) + 1 " +
+            "where id = :id and coalesce(vagas_classificado_feminino_ocupadas, 0) < coalesce(numero_vagas_classificado_feminino, 0)", nativeQuery = true)
+    int reservarVagaClassificadoFeminino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_habilitado_masculino_ocupadas = coalesce(vagas_habilitado_masculino_ocupadas, 0) + 1 " +
+            "where id = :id and coalesce(vagas_habilitado_masculino_ocupadas, 0) < coalesce(numero_vagas_habilitado_masculino, 0)", nativeQuery = true)
+    int reservarVagaHabilitadoMasculino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_habilitado_feminino_ocupadas = coalesce(vagas_habilitado_feminino_ocupadas, 0) + 1 " +
+            "where id = :id and coalesce(vagas_habilitado_feminino_ocupadas, 0) < coalesce(numero_vagas_habilitado_feminino, 0)", nativeQuery = true)
+    int reservarVagaHabilitadoFeminino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_reservado_ocupadas = coalesce(vagas_reservado_ocupadas, 0) + 1 " +
+            "where id = :id and coalesce(vagas_reservado_ocupadas, 0) < coalesce(numero_vagas_cadastro_reserva, 0)", nativeQuery = true)
+    int reservarVagaReservado(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_classificado_masculino_ocupadas = vagas_classificado_masculino_ocupadas - 1 " +
+            "where id = :id and vagas_classificado_masculino_ocupadas > 0", nativeQuery = true)
+    int liberarVagaClassificadoMasculino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_classificado_feminino_ocupadas = vagas_classificado_feminino_ocupadas - 1 " +
+            "where id = :id and vagas_classificado_feminino_ocupadas > 0", nativeQuery = true)
+    int liberarVagaClassificadoFeminino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_habilitado_masculino_ocupadas = vagas_habilitado_masculino_ocupadas - 1 " +
+            "where id = :id and vagas_habilitado_masculino_ocupadas > 0", nativeQuery = true)
+    int liberarVagaHabilitadoMasculino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_habilitado_feminino_ocupadas = vagas_habilitado_feminino_ocupadas - 1 " +
+            "where id = :id and vagas_habilitado_feminino_ocupadas > 0", nativeQuery = true)
+    int liberarVagaHabilitadoFeminino(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "update campus_edital_turno set vagas_reservado_ocupadas = vagas_reservado_ocupadas - 1 " +
+            "where id = :id and vagas_reservado_ocupadas > 0", nativeQuery = true)
+    int liberarVagaReservado(@Param("id") Long id);
 }
@@ -13,6 +13,32 @@ import com.example.energif.model.SituacaoCandidato;
 
 public interface CandidatoRepository extends JpaRepository<Candidato, Long> {
 
+	/**
+	 * WHERE dos filtros da listagem (consultas nativas sobre candidato c LEFT JOIN campus cp).
+	 *
+	 * O texto pesquisado (q) casa com nome, nome do campus ou CPF, sem diferenciar
+	 * maiúsculas nem acentos. Cada alternativa bate num índice de trigramas (V5/V8):
+	 * nome normalizado e CPF direto em candidato, e o campus é resolvido antes, na
+	 * tabela pequena, virando campus_id = ANY(...), para o OR virar um BitmapOr.
+	 *
+	 * O filtro de idade chega como intervalo de data de nascimento (nascidoAte /
+	 * nascidoApos, ver CandidatoListagemService.Filtros), que usa os índices de
+	 * data_nascimento.
+	 */
+	String FILTROS_LISTAGEM = "WHERE (:q IS NULL " +
+			"OR c.nome_normalizado LIKE concat('%', energif_normalizar(:q), '%') " +
+			"OR c.cpf LIKE concat('%', :q, '%') " +
+			"OR c.campus_id = ANY(ARRAY(SELECT cb.id FROM campus cb " +
+			"WHERE energif_normalizar(cb.nome) LIKE concat('%', energif_normalizar(:q), '%')))) " +
+			"AND (:editalId IS NULL OR c.edital_id = :editalId) " +
+			"AND (:campusId IS NULL OR c.campus_id = :campusId) " +
+			"AND (:genero IS NULL OR c.genero = :genero) " +
+			// o driver envia datas sem tipo; em "? IS NULL" o PostgreSQL não teria como inferi-lo
+			"AND (CAST(:nascidoAte AS date) IS NULL OR c.data_nascimento <= :nascidoAte) " +
+			"AND (CAST(:nascidoApos AS date) IS NULL OR c.data_nascimento > :nascidoApos) " +
+			"AND (:situacao IS NULL OR c.situacao = :situacao) " +
+			"AND (:turno IS NULL OR lower(c.turno) = lower(:turno))";
+
 	// Search by name (contains), campus name (contains) or cpf (exact or contains)
 	@Query("select c from Candidato c left join c.campus cp where " +
 			"(:q is null or lower(c.nome) like lower(concat('%', :q, '%')) " +
@@ -31,30 +57,6 @@ public interface CandidatoRepository extends JpaRepository<Candidato, Long> {
 		"and (:genero is null or c.genero = :genero)")
 	Page<Candidato> searchByCampus(@Param("q") String q, @Param("campusId") Long campusId, @Param("genero") Character genero, Pageable pageable);
 
-    // Combined search supporting q, campusId, genero and age group (maior/minor de 18 anos)
-	@Query(value = "SELECT c.* FROM candidato c LEFT JOIN campus cp ON cp.id = c.campus_id " +
-    "WHERE (:q IS NULL OR lower(c.nome) LIKE concat('%', :q, '%') OR lower(cp.nome) LIKE concat('%', :q, '%') OR c.cpf LIKE concat('%', :q, '%')) " +
-    "AND (:campusId IS NULL OR cp.id = :campusId) " +
-    "AND (:genero IS NULL OR c.genero = :genero) " +
-    "AND (:idade IS NULL OR (:idade = 'maior' AND c.data_nascimento <= (current_date - INTERVAL '18 years')) OR (:idade = 'menor' AND c.data_nascimento > (current_date - INTERVAL '18 years'))) " +
-    "AND (:situacao IS NULL OR c.situacao = :situacao) " +
-    "AND (:turno IS NULL OR lower(c.turno) = lower(:turno))", // <-- CLÁUSULA ATUALIZADA PARA USAR SITUACAO
-    
-    countQuery = "SELECT count(c.id) FROM candidato c LEFT JOIN campus cp ON cp.id = c.campus_id " +
-        "WHERE (:q IS NULL OR lower(c.nome) LIKE concat('%', :q, '%') OR lower(cp.nome) LIKE concat('%', :q, '%') OR c.cpf LIKE concat('%', :q, '%')) " +
-        "AND (:campusId IS NULL OR cp.id = :campusId) " +
-        "AND (:genero IS NULL OR c.genero = :genero) " +
-        "AND (:idade IS NULL OR (:idade = 'maior' AND c.data_nascimento <= (current_date - INTERVAL '18 years')) OR (:idade = 'menor' AND c.data_nascimento > (current_date - INTERVAL '18 years'))) " +
-        "AND (:situacao IS NULL OR c.situacao = :situacao) " +
-        "AND (:turno IS NULL OR lower(c.turno) = lower(:turno))", // <-- CLÁUSULA ATUALIZADA PARA USAR SITUACAO
-    nativeQuery = true)
-	Page<Candidato> searchCombined(@Param("q") String q,
-				   @Param("campusId") Long campusId,
-				   @Param("genero") Character genero,
-				   @Param("idade") String idade,
-				   @Param("situacao") String situacao,@Param("turno") String turno,
-                       Pageable pageable);
-
 	    // For report generation: fetch ordered list of candidates by inscription date/time
 	    List<Candidato> findAllByCampusIdOrderByDataInscricaoAscHoraInscricao(Long campusId);
 
@@ -66,6 +68,20 @@ public interface CandidatoRepository extends JpaRepository<Candidato, Long> {
 	    @Query("select distinct c.turno from Candidato c")
 	    List<String> findDistinctTurno();
 
+		// Projeções de leitura (CandidatoResumo) para listagem e relatórios
+		@Query(CandidatoResumo.SELECT + "where c.id in :ids")
+		List<CandidatoResumo> findResumosByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+		@Query(CandidatoResumo.SELECT + "where (:campusId is null or cp.id = :campusId) " +
+				"and (:turno is null or c.turno = :turno) order by c.dataInscricao, c.horaInscricao")
+		List<CandidatoResumo> findResumosOrdemInscricao(@Param("campusId") Long campusId, @Param("turno") String turno);
+
+		// Marca da importação incremental: inscrição mais recente do edital (usa ix_candidato_edital_inscricao)
+		@Query("select c.dataInscricao, c.horaInscricao from Candidato c where c.edital.id = :editalId " +
+				"and c.dataInscricao is not null and c.horaInscricao is not null " +
+				"order by c.dataInscricao desc, c.horaInscricao desc limit 1")
+		List<Object[]> findUltimaInscricao(@Param("editalId") Long editalId);
+
 		// Find CPFs that appear more than once and their counts
 		@Query(value = "SELECT cpf, COUNT(cpf) AS total_de_repeticoes FROM candidato GROUP BY cpf HAVING COUNT(cpf) > 1", nativeQuery = true)
 		List<Object[]> findDuplicateCpfs();
@@ -75,18 +91,15 @@ public interface CandidatoRepository extends JpaRepository<Candidato, Long> {
 
 		@Query(value = "SELECT c.situacao, COUNT(c.id) " +
 				"FROM candidato c LEFT JOIN campus cp ON cp.id = c.campus_id " +
-				"WHERE (:q IS NULL OR lower(c.nome) LIKE concat('%', :q, '%') OR lower(cp.nome) LIKE concat('%', :q, '%') OR c.cpf LIKE concat('%', :q, '%')) " +
-				"AND (:campusId IS NULL OR cp.id = :campusId) " +
-				"AND (:genero IS NULL OR c.genero = :genero) " +
-				"AND (:idade IS NULL OR (:idade = 'maior' AND c.data_nascimento <= (current_date - INTERVAL '18 years')) OR (:idade = 'menor' AND c.data_nascimento > (current_date - INTERVAL '18 years'))) " +
-				"AND (:situacao IS NULL OR c.situacao = :situacao) " +
-				"AND (:turno IS NULL OR lower(c.turno) = lower(:turno)) " +
+				FILTROS_LISTAGEM + " " +
 				"GROUP BY c.situacao",
 				nativeQuery = true)
 		List<Object[]> countSituacaoByFilters(@Param("q") String q,
+										 @Param("editalId") Long editalId,
 										 @Param("campusId") Long campusId,
 										 @Param("genero") Character genero,
-										 @Param("idade") String idade,
+										 @Param("nascidoAte") java.time.LocalDate nascidoAte,
+										 @Param("nascidoApos") java.time.LocalDate nascidoApos,
 										 @Param("situacao") String situacao,
 										 @Param("turno") String turno);
 }
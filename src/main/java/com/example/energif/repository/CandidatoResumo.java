@@ -0,0 +1,36 @@
+package com.example.energif.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.example.energif.model.SituacaoCandidato;
+import com.example.energif.model.TipoVaga;
+
+/**
+ * Projeção de leitura de um candidato para a listagem e os relatórios: só as
+ * colunas exibidas, com o nome do campus e a descrição do edital já resolvidos
+ * na própria consulta. Não é entidade gerenciada, então não há carga de
+ * Campus/Edital por linha nem dirty checking no fim da transação.
+ */
+public record CandidatoResumo(Long id, String nome, String cpf, String campusNome, String editalDescricao,
+        LocalDate dataNascimento, String turno, Character genero, LocalDate dataInscricao, LocalTime horaInscricao,
+        SituacaoCandidato situacao, String motivoNaoClassificacao, TipoVaga tipoVaga) {
+
+    /** Expressão JPQL que monta este record a partir de {@code Candidato c left join c.campus cp left join c.edital e}. */
+    static final String SELECT = "select new com.example.energif.repository.CandidatoResumo(c.id, c.nome, c.cpf, "
+            + "cp.nome, e.descricao, c.dataNascimento, c.turno, c.genero, c.dataInscricao, c.horaInscricao, "
+            + "c.situacao, c.motivoNaoClassificacao, c.tipoVaga) "
+            + "from Candidato c left join c.campus cp left join c.edital e ";
+
+    /** CPF para exibição, só com os seis dígitos do meio: ***.456.789-**. */
+    public String cpfMascarado() {
+        if (cpf == null) {
+            return null;
+        }
+        String digitos = cpf.replaceAll("\\D", "");
+        if (digitos.length() != 11) {
+            return "***";
+        }
+        return "***." + digitos.substring(3, 6) + "." + digitos.substring(6, 9) + "-**";
+    }
+}
@@ -6,15 +6,116 @@ import com.example.energif.model.TipoVaga;
 import com.example.energif.model.Vaga;
 import com.example.energif.model.Genero;
 import com.example.energif.repository.CandidatoRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AlocacaoVagaService {
 
-    @Autowired
-    private CandidatoRepository candidatoRepository;
+    private static final Logger logger = LoggerFactory.getLogger(AlocacaoVagaService.class);
+
+    /** Turno assumido para candidatos sem turno, como na marcação de situação da listagem. */
+    static final String TURNO_PADRAO = "UNICO";
+
+    // Só classificados e habilitados disputam vagas; os demais não entram na alocação.
+    private static final String CANDIDATOS_EDITAL = "SELECT c.id, c.campus_id, coalesce(c.turno, '" + TURNO_PADRAO
+            + "'), c.genero, c.situacao, c.tipo_vaga FROM candidato c "
+            + "WHERE c.edital_id = ? AND c.campus_id IS NOT NULL AND c.situacao IN ('CLASSIFICADO', 'HABILITADO') "
+            + "ORDER BY c.campus_id, 3, c.data_inscricao, c.hora_inscricao, c.id";
+
+    private static final String VAGAS_EDITAL = "SELECT t.id, ce.campus_id, t.turno, "
+            + "t.numero_vagas_classificado_masculino, t.numero_vagas_classificado_feminino, "
+            + "t.numero_vagas_habilitado_masculino, t.numero_vagas_habilitado_feminino, t.numero_vagas_cadastro_reserva, "
+            + "cp.nome FROM campus_edital_turno t JOIN campus_edital ce ON ce.id = t.campus_edital_id "
+            + "JOIN campus cp ON cp.id = ce.campus_id WHERE ce.edital_id = ? ORDER BY cp.nome, t.turno";
+
+    /*
+     * Trava os turnos do edital antes de ler os candidatos: a realocação
+     * incremental (RealocacaoVagaService) também trava ou atualiza a linha do
+     * turno antes de gravar candidatos, então ela espera a alocação terminar
+     * em vez de ter seus contadores e tipos de vaga sobrescritos. Em ordem de
+     * id, para duas alocações do mesmo edital não se travarem.
+     */
+    private static final String TRAVAR_TURNOS = "SELECT t.id FROM campus_edital_turno t "
+            + "JOIN campus_edital ce ON ce.id = t.campus_edital_id WHERE ce.edital_id = ? ORDER BY t.id FOR UPDATE OF t";
+
+    private static final String NOMES = "SELECT id, nome FROM candidato WHERE id = ANY (?)";
+
+    private static final String GRAVAR_CANDIDATOS = "UPDATE candidato c SET situacao = l.situacao, tipo_vaga = l.tipo "
+            + "FROM unnest(?::bigint[], ?::text[], ?::text[]) AS l(id, situacao, tipo) "
+            + "WHERE c.id = l.id AND (c.situacao IS DISTINCT FROM l.situacao OR c.tipo_vaga IS DISTINCT FROM l.tipo)";
+
+    private static final String GRAVAR_OCUPACAO = "UPDATE campus_edital_turno SET "
+            + "vagas_classificado_masculino_ocupadas = ?, vagas_classificado_feminino_ocupadas = ?, "
+            + "vagas_habilitado_masculino_ocupadas = ?, vagas_habilitado_feminino_ocupadas = ?, "
+            + "vagas_reservado_ocupadas = ? WHERE id = ?";
+
+    /** Resumo de uma alocação do edital inteiro. */
+    public record ResultadoAlocacaoEdital(int turnos, int candidatos, int alterados, int semVagasConfiguradas,
+            long duracaoMs) {
+    }
+
+    /** Vagas (ou vagas ocupadas) de um campus/turno por tipo. */
+    public record VagasTurno(int classificadoMasculino, int classificadoFeminino, int habilitadoMasculino,
+            int habilitadoFeminino, int reservado) {
+    }
+
+    /**
+     * Vagas de um turno ({@code CampusEditalTurno}) a usar na simulação no
+     * lugar das cadastradas; campos null mantêm o valor cadastrado.
+     * {@code reservado} são as vagas de cadastro de reserva.
+     */
+    public record AjusteVagas(Long turnoId, Integer classificadoMasculino, Integer classificadoFeminino,
+            Integer habilitadoMasculino, Integer habilitadoFeminino, Integer reservado) {
+    }
+
+    /** Resultado simulado de um campus/turno; feminino/masculino contam as vagas ocupadas por gênero. */
+    public record TurnoSimulado(Long turnoId, String campus, String turno, int candidatos, VagasTurno vagas,
+            VagasTurno ocupadas, int feminino, int masculino) {
+    }
+
+    /** Candidato cuja situação ou tipo de vaga mudaria. */
+    public record AlteracaoSimulada(Long id, String nome, String campus, String turno,
+            SituacaoCandidato situacaoAtual, SituacaoCandidato situacaoNova, TipoVaga tipoVagaAtual,
+            TipoVaga tipoVagaNovo) {
+    }
+
+    public record SimulacaoAlocacao(List<TurnoSimulado> turnos, List<AlteracaoSimulada> alteracoes,
+            int semVagasConfiguradas, long duracaoMs) {
+    }
+
+    /** Campus/turno com vagas cadastradas no edital. */
+    private record TurnoEdital(long id, String campus, String turno, MotorAlocacao.Capacidade vagas) {
+    }
+
+    /** Campus/turno a partir de uma posição do instantâneo; turno null quando não há vagas configuradas. */
+    private record Intervalo(TurnoEdital turno, int inicio, int fim) {
+    }
+
+    /** Candidatos e vagas de um edital, prontos para o motor. */
+    private record Cenario(MotorAlocacao.Instantaneo candidatos, List<Intervalo> intervalos,
+            Map<Long, TurnoEdital> turnos, int semVagasConfiguradas) {
+    }
+
+    private final CandidatoRepository candidatoRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public AlocacaoVagaService(CandidatoRepository candidatoRepository, JdbcTemplate jdbcTemplate) {
+        this.candidatoRepository = candidatoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
 
     /**
      * Aloca vagas para candidatos conforme sua ordem de inscrição, situação e gênero
@@ -54,91 +155,281 @@ public class AlocacaoVagaService {
         // Alocar vagas dinamicamente
         vaga.alocarVagas(totalClassificados, classificadosFeminino, totalHabilitados);
 
-        // Processar candidatos em ordem de inscrição e atribuir tipo de vaga
-        int contadorClassificadosMasc = 0;
-        int contadorClassificadosFem = 0;
-        int contadorHabilitadosMasc = 0;
-        int contadorHabilitadosFem = 0;
-        int contadorReservados = 0;
-
-        for (Candidato candidato : candidatos) {
-            TipoVaga tipoVagaAtribuido = null;
-            
-            // Classificados têm prioridade
-            if (candidato.getSituacao() == SituacaoCandidato.CLASSIFICADO) {
-                if (Genero.FEMININO.getCodigo().equals(candidato.getGenero())) {
-                    // Mulher classificada
-                    if (contadorClassificadosFem < vaga.getVagasClassificadosFeminino()) {
-                        tipoVagaAtribuido = TipoVaga.CLASSIFICADO_FEMININO;
-                        contadorClassificadosFem++;
-                    }
-                } else {
-                    // Homem classificado
-                    if (contadorClassificadosMasc < vaga.getVagasClassificadosMasculino()) {
-                        tipoVagaAtribuido = TipoVaga.CLASSIFICADO_MASCULINO;
-                        contadorClassificadosMasc++;
-                    }
-                }
+        MotorAlocacao.Instantaneo instantaneo = new MotorAlocacao.Instantaneo(candidatos.size());
+        for (Candidato c : candidatos) {
+            instantaneo.adicionar(c.getId(), c.getGenero(), c.getSituacao(), c.getTipoVaga());
+        }
+        MotorAlocacao.Resultado resultado = MotorAlocacao.alocar(instantaneo, 0, candidatos.size(),
+                new MotorAlocacao.Capacidade(vaga.getVagasClassificadosMasculino(),
+                        vaga.getVagasClassificadosFeminino(), vaga.getVagasHabilitadosMasculino(),
+                        vaga.getVagasHabilitadosFeminino(), vaga.getVagasReservadas()));
 
-                // Se não conseguiu vaga classificado, tenta habilitado
-                if (tipoVagaAtribuido == null) {
-                    if (Genero.FEMININO.getCodigo().equals(candidato.getGenero())) {
-                        if (contadorHabilitadosFem < vaga.getVagasHabilitadosFeminino()) {
-                            tipoVagaAtribuido = TipoVaga.HABILITADO_FEMININO;
-                            contadorHabilitadosFem++;
-                            candidato.setSituacao(SituacaoCandidato.HABILITADO);
-                        }
-                    } else {
-                        if (contadorHabilitadosMasc < vaga.getVagasHabilitadosMasculino()) {
-                            tipoVagaAtribuido = TipoVaga.HABILITADO_MASCULINO;
-                            contadorHabilitadosMasc++;
-                            candidato.setSituacao(SituacaoCandidato.HABILITADO);
-                        }
-                    }
-                }
+        MotorAlocacao.Ocupacao o = resultado.ocupacao();
+        vaga.setOcupadasClassificadosMasculino(vaga.getOcupadasClassificadosMasculino() + o.classificadosMasculino());
+        vaga.setOcupadasClassificadosFeminino(vaga.getOcupadasClassificadosFeminino() + o.classificadosFeminino());
+        vaga.setOcupadasHabilitadosMasculino(vaga.getOcupadasHabilitadosMasculino() + o.habilitadosMasculino());
+        vaga.setOcupadasHabilitadosFeminino(vaga.getOcupadasHabilitadosFeminino() + o.habilitadosFeminino());
+        vaga.setOcupadasReservadas(vaga.getOcupadasReservadas() + o.reservadas());
 
-                // Se ainda não teve vaga, fica em reservado
-                if (tipoVagaAtribuido == null) {
-                    if (contadorReservados < vaga.getVagasReservadas()) {
-                        tipoVagaAtribuido = TipoVaga.RESERVADO;
-                        contadorReservados++;
-                        candidato.setSituacao(SituacaoCandidato.HABILITADO);
-                    } else {
-                        candidato.setSituacao(SituacaoCandidato.PENDENTE);
-                        tipoVagaAtribuido = null;
-                    }
-                }
-            } else if (candidato.getSituacao() == SituacaoCandidato.HABILITADO) {
-                // Habilitados ocupam vagas de habilitados se disponível
-                if (Genero.FEMININO.getCodigo().equals(candidato.getGenero())) {
-                    if (contadorHabilitadosFem < vaga.getVagasHabilitadosFeminino()) {
-                        tipoVagaAtribuido = TipoVaga.HABILITADO_FEMININO;
-                        contadorHabilitadosFem++;
-                    }
-                } else {
-                    if (contadorHabilitadosMasc < vaga.getVagasHabilitadosMasculino()) {
-                        tipoVagaAtribuido = TipoVaga.HABILITADO_MASCULINO;
-                        contadorHabilitadosMasc++;
-                    }
-                }
+        // Salvar só os candidatos cuja alocação mudou
+        MotorAlocacao.Diferenca diferenca = resultado.diferenca();
+        if (diferenca.tamanho() == 0) {
+            return;
+        }
+        Map<Long, Candidato> porId = new HashMap<>();
+        for (Candidato c : candidatos) {
+            porId.put(c.getId(), c);
+        }
+        List<Candidato> alterados = new ArrayList<>(diferenca.tamanho());
+        for (int i = 0; i < diferenca.tamanho(); i++) {
+            Candidato candidato = porId.get(diferenca.id(i));
+            candidato.setSituacao(diferenca.situacao(i));
+            candidato.setTipoVaga(diferenca.tipo(i));
+            alterados.add(candidato);
+        }
+        candidatoRepository.saveAll(alterados);
+    }
 
-                // Se não tem vaga de habilitado, tenta reservado
-                if (tipoVagaAtribuido == null) {
-                    if (contadorReservados < vaga.getVagasReservadas()) {
-                        tipoVagaAtribuido = TipoVaga.RESERVADO;
-                        contadorReservados++;
-                    }
+    /**
+     * Refaz a alocação de todos os campi/turnos de um edital de uma vez.
+     *
+     * Os candidatos do edital vêm de uma única consulta, já ordenados por
+     * campus, turno e inscrição, direto para o instantâneo de
+     * {@link MotorAlocacao}; cada campus/turno é um intervalo dele. Os
+     * intervalos são alocados em paralelo (no pool fork-join comum: o trabalho
+     * é só CPU, sem acesso ao banco) e só a diferença volta ao banco, em um
+     * UPDATE por unnest, mais um batch com a ocupação de cada turno, tudo na
+     * mesma transação. Os turnos do edital ficam travados do início ao fim,
+     * então marcações individuais feitas ao mesmo tempo esperam.
+     *
+     * Candidatos de um campus/turno sem vagas configuradas ficam como estão.
+     */
+    @Transactional
+    public ResultadoAlocacaoEdital alocarEdital(Long editalId) {
+        long inicio = System.nanoTime();
+        jdbcTemplate.queryForList(TRAVAR_TURNOS, Long.class, Objects.requireNonNull(editalId, "editalId"));
+        Cenario cenario = carregar(editalId);
+        Map<Long, MotorAlocacao.Capacidade> vagas = new HashMap<>();
+        cenario.turnos().forEach((id, t) -> vagas.put(id, t.vagas()));
+        Map<Long, MotorAlocacao.Resultado> resultados = executar(cenario, vagas);
+
+        List<MotorAlocacao.Diferenca> diferencas = new ArrayList<>(resultados.size());
+        Map<Long, MotorAlocacao.Ocupacao> ocupacoes = new LinkedHashMap<>();
+        resultados.forEach((turnoId, r) -> {
+            diferencas.add(r.diferenca());
+            ocupacoes.put(turnoId, r.ocupacao());
+        });
+        MotorAlocacao.Diferenca diferenca = MotorAlocacao.Diferenca.juntar(diferencas);
+        gravarCandidatos(diferenca);
+        gravarOcupacoes(ocupacoes);
+
+        ResultadoAlocacaoEdital resultado = new ResultadoAlocacaoEdital(ocupacoes.size(),
+                cenario.candidatos().tamanho(), diferenca.tamanho(), cenario.semVagasConfiguradas(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        logger.info("Alocação do edital {}: {}", editalId, resultado);
+        return resultado;
+    }
+
+    /**
+     * Roda a alocação do edital como {@link #alocarEdital} faria, mas com as
+     * vagas ajustadas e sem gravar nada: devolve a ocupação de cada
+     * campus/turno, a divisão por gênero e os candidatos que mudariam de
+     * situação ou tipo de vaga. Custa uma leitura dos candidatos do edital
+     * (a mesma consulta ordenada da alocação) mais o motor em memória.
+     */
+    @Transactional(readOnly = true)
+    public SimulacaoAlocacao simular(Long editalId, List<AjusteVagas> ajustes) {
+        long inicio = System.nanoTime();
+        Cenario cenario = carregar(editalId);
+        Map<Long, MotorAlocacao.Capacidade> vagas = new HashMap<>();
+        cenario.turnos().forEach((id, t) -> vagas.put(id, t.vagas()));
+        if (ajustes != null) {
+            for (AjusteVagas ajuste : ajustes) {
+                MotorAlocacao.Capacidade atual = ajuste.turnoId() != null ? vagas.get(ajuste.turnoId()) : null;
+                if (atual == null) {
+                    throw new IllegalArgumentException("Turno " + ajuste.turnoId() + " não pertence ao edital");
                 }
+                vagas.put(ajuste.turnoId(), new MotorAlocacao.Capacidade(
+                        naoNegativo(ajuste.classificadoMasculino(), atual.classificadosMasculino()),
+                        naoNegativo(ajuste.classificadoFeminino(), atual.classificadosFeminino()),
+                        naoNegativo(ajuste.habilitadoMasculino(), atual.habilitadosMasculino()),
+                        naoNegativo(ajuste.habilitadoFeminino(), atual.habilitadosFeminino()),
+                        naoNegativo(ajuste.reservado(), atual.reservadas())));
+            }
+        }
+        Map<Long, MotorAlocacao.Resultado> resultados = executar(cenario, vagas);
+
+        Map<Long, Integer> candidatosPorTurno = new HashMap<>();
+        for (Intervalo intervalo : cenario.intervalos()) {
+            if (intervalo.turno() != null) {
+                candidatosPorTurno.put(intervalo.turno().id(), intervalo.fim() - intervalo.inicio());
             }
+        }
+        List<TurnoSimulado> turnos = new ArrayList<>(cenario.turnos().size());
+        for (TurnoEdital t : cenario.turnos().values()) {
+            MotorAlocacao.Resultado r = resultados.get(t.id());
+            MotorAlocacao.Ocupacao o = r.ocupacao();
+            turnos.add(new TurnoSimulado(t.id(), t.campus(), t.turno(), candidatosPorTurno.getOrDefault(t.id(), 0),
+                    vagasTurno(vagas.get(t.id())), new VagasTurno(o.classificadosMasculino(),
+                            o.classificadosFeminino(), o.habilitadosMasculino(), o.habilitadosFeminino(),
+                            o.reservadas()),
+                    o.feminino(), o.masculino()));
+        }
 
-            // Atribuir tipo de vaga ao candidato
-            if (tipoVagaAtribuido != null) {
-                candidato.setTipoVaga(tipoVagaAtribuido);
-                vaga.preencherVaga(tipoVagaAtribuido);
+        MotorAlocacao.Instantaneo candidatos = cenario.candidatos();
+        List<MotorAlocacao.Diferenca> diferencas = new ArrayList<>();
+        List<TurnoEdital> turnoDaDiferenca = new ArrayList<>();
+        int totalAlteracoes = 0;
+        for (TurnoEdital t : cenario.turnos().values()) {
+            MotorAlocacao.Diferenca d = resultados.get(t.id()).diferenca();
+            diferencas.add(d);
+            turnoDaDiferenca.add(t);
+            totalAlteracoes += d.tamanho();
+        }
+        Long[] ids = new Long[totalAlteracoes];
+        int k = 0;
+        for (MotorAlocacao.Diferenca d : diferencas) {
+            for (int i = 0; i < d.tamanho(); i++) {
+                ids[k++] = d.id(i);
+            }
+        }
+        Map<Long, String> nomes = nomes(ids);
+        List<AlteracaoSimulada> alteracoes = new ArrayList<>(totalAlteracoes);
+        for (int j = 0; j < diferencas.size(); j++) {
+            MotorAlocacao.Diferenca d = diferencas.get(j);
+            TurnoEdital t = turnoDaDiferenca.get(j);
+            for (int i = 0; i < d.tamanho(); i++) {
+                int p = d.posicao(i);
+                alteracoes.add(new AlteracaoSimulada(d.id(i), nomes.get(d.id(i)), t.campus(), t.turno(),
+                        candidatos.situacao(p), d.situacao(i), candidatos.tipo(p), d.tipo(i)));
             }
         }
 
-        // Salvar candidatos com as novas alocações
-        candidatoRepository.saveAll(candidatos);
+        SimulacaoAlocacao simulacao = new SimulacaoAlocacao(turnos, alteracoes, cenario.semVagasConfiguradas(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        logger.debug("Simulação do edital {}: {} turnos, {} alterações, {} ms", editalId, turnos.size(),
+                alteracoes.size(), simulacao.duracaoMs());
+        return simulacao;
+    }
+
+    /** Lê as vagas e os candidatos do edital para o motor. */
+    private Cenario carregar(Long editalId) {
+        Objects.requireNonNull(editalId, "editalId");
+
+        Map<String, TurnoEdital> turnoPorChave = new HashMap<>();
+        Map<Long, TurnoEdital> turnos = new LinkedHashMap<>();
+        jdbcTemplate.query(VAGAS_EDITAL, rs -> {
+            TurnoEdital t = new TurnoEdital(rs.getLong(1), rs.getString(9), rs.getString(3),
+                    new MotorAlocacao.Capacidade(rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getInt(7),
+                            rs.getInt(8)));
+            turnoPorChave.put(chave(rs.getLong(2), t.turno()), t);
+            turnos.put(t.id(), t);
+        }, editalId);
+
+        // já vem agrupado por campus/turno: cada mudança de chave abre um novo intervalo
+        MotorAlocacao.Instantaneo instantaneo = new MotorAlocacao.Instantaneo(1024);
+        List<String> chaves = new ArrayList<>();
+        List<Integer> inicios = new ArrayList<>();
+        jdbcTemplate.query(CANDIDATOS_EDITAL, rs -> {
+            String chave = chave(rs.getLong(2), rs.getString(3));
+            if (chaves.isEmpty() || !chave.equals(chaves.get(chaves.size() - 1))) {
+                chaves.add(chave);
+                inicios.add(instantaneo.tamanho());
+            }
+            String genero = rs.getString(4);
+            String tipo = rs.getString(6);
+            instantaneo.adicionar(rs.getLong(1), genero != null && !genero.isEmpty() ? genero.charAt(0) : null,
+                    SituacaoCandidato.valueOf(rs.getString(5)), tipo != null ? TipoVaga.valueOf(tipo) : null);
+        }, editalId);
+
+        List<Intervalo> intervalos = new ArrayList<>(chaves.size());
+        int semVagas = 0;
+        for (int p = 0; p < chaves.size(); p++) {
+            int fim = p + 1 < chaves.size() ? inicios.get(p + 1) : instantaneo.tamanho();
+            TurnoEdital turno = turnoPorChave.get(chaves.get(p));
+            if (turno == null) {
+                semVagas += fim - inicios.get(p);
+            }
+            intervalos.add(new Intervalo(turno, inicios.get(p), fim));
+        }
+        return new Cenario(instantaneo, intervalos, turnos, semVagas);
+    }
+
+    /**
+     * Aloca cada campus/turno do cenário com as vagas dadas, em paralelo.
+     * Turnos sem candidatos entram com ocupação zerada.
+     */
+    private static Map<Long, MotorAlocacao.Resultado> executar(Cenario cenario,
+            Map<Long, MotorAlocacao.Capacidade> vagas) {
+        List<Intervalo> comVagas = cenario.intervalos().stream().filter(i -> i.turno() != null).toList();
+        List<MotorAlocacao.Resultado> calculados = comVagas.parallelStream()
+                .map(i -> MotorAlocacao.alocar(cenario.candidatos(), i.inicio(), i.fim(), vagas.get(i.turno().id())))
+                .toList();
+
+        Map<Long, MotorAlocacao.Resultado> resultados = new LinkedHashMap<>();
+        MotorAlocacao.Resultado vazio = new MotorAlocacao.Resultado(MotorAlocacao.Ocupacao.VAZIA,
+                MotorAlocacao.Diferenca.juntar(List.of()));
+        for (Long turnoId : cenario.turnos().keySet()) {
+            resultados.put(turnoId, vazio);
+        }
+        for (int i = 0; i < comVagas.size(); i++) {
+            resultados.put(comVagas.get(i).turno().id(), calculados.get(i));
+        }
+        return resultados;
+    }
+
+    private Map<Long, String> nomes(Long[] ids) {
+        Map<Long, String> nomes = new HashMap<>();
+        if (ids.length == 0) {
+            return nomes;
+        }
+        jdbcTemplate.query(NOMES, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                    nomes.put(rs.getLong(1), rs.getString(2));
+                });
+        return nomes;
+    }
+
+    private static VagasTurno vagasTurno(MotorAlocacao.Capacidade c) {
+        return new VagasTurno(c.classificadosMasculino(), c.classificadosFeminino(), c.habilitadosMasculino(),
+                c.habilitadosFeminino(), c.reservadas());
+    }
+
+    private static int naoNegativo(Integer valor, int padrao) {
+        return valor != null ? Math.max(0, valor) : padrao;
+    }
+
+    private void gravarCandidatos(MotorAlocacao.Diferenca diferenca) {
+        int n = diferenca.tamanho();
+        if (n == 0) {
+            return;
+        }
+        Long[] ids = new Long[n];
+        String[] situacoes = new String[n];
+        String[] tipos = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = diferenca.id(i);
+            situacoes[i] = diferenca.situacao(i).name();
+            TipoVaga tipo = diferenca.tipo(i);
+            tipos[i] = tipo != null ? tipo.name() : null;
+        }
+        jdbcTemplate.update(GRAVAR_CANDIDATOS, ps -> {
+            Connection con = ps.getConnection();
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("text", situacoes));
+            ps.setArray(3, con.createArrayOf("text", tipos));
+        });
+    }
+
+    private void gravarOcupacoes(Map<Long, MotorAlocacao.Ocupacao> ocupacoes) {
+        List<Object[]> linhas = new ArrayList<>(ocupacoes.size());
+        ocupacoes.forEach((turnoId, o) -> linhas.add(new Object[] { o.classificadosMasculino(),
+                o.classificadosFeminino(), o.habilitadosMasculino(), o.habilitadosFeminino(), o.reservadas(),
+                turnoId }));
+        jdbcTemplate.batchUpdate(GRAVAR_OCUPACAO, linhas);
+    }
+
+    private static String chave(long campusId, String turno) {
+        return campusId + "|" + turno;
     }
 }
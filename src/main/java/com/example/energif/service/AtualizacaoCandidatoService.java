@@ -0,0 +1,217 @@
+package com.example.energif.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.energif.model.Candidato;
+import com.example.energif.model.Edital;
+
+/**
+ * Importação em modo atualização: a planilha é sincronizada com o edital em
+ * vez de ser inserida de novo.
+ *
+ * A inscrição é identificada por (cpf, edital) e cada linha guarda o hash do
+ * seu conteúdo. Cada lote vira um único {@code INSERT ... ON CONFLICT}: CPFs
+ * novos são inseridos, os que já existem só são atualizados se o hash mudou, e
+ * linhas idênticas às já gravadas não geram escrita nenhuma. Só os CPFs novos
+ * reservam id, e de quem ocupa vaga não se mudam os campos que decidem a vaga.
+ */
+@Service
+public class AtualizacaoCandidatoService {
+
+    /**
+     * Candidatos importados antes do modo atualização não têm hash e ficam fora
+     * do índice único. Uma linha por CPF (a mais antiga) é adotada com hash
+     * vazio, que nunca coincide com um hash real: na primeira sincronização ela
+     * é atualizada em vez de ganhar uma cópia.
+     */
+    private static final String ADOTAR_ANTIGOS = "UPDATE candidato SET hash_conteudo = '' WHERE id IN ("
+            + "SELECT min(l.id) FROM candidato l WHERE l.edital_id = ? AND l.cpf IS NOT NULL "
+            + "AND l.hash_conteudo IS NULL AND NOT EXISTS (SELECT 1 FROM candidato h "
+            + "WHERE h.edital_id = l.edital_id AND h.cpf = l.cpf AND h.hash_conteudo IS NOT NULL) "
+            + "GROUP BY l.cpf)";
+
+    /*
+     * Candidato que ocupa uma vaga (conta nos contadores do campus/turno). Dele
+     * não se altera campus, turno, gênero nem situação: a vaga ficaria presa ao
+     * turno antigo. O hash antigo é mantido enquanto a planilha divergir nesses
+     * campos, para a mudança ser aplicada numa sincronização depois que a vaga
+     * for liberada.
+     */
+    private static final String OCUPA_VAGA = "(c.situacao IN ('CLASSIFICADO', 'HABILITADO') AND c.tipo_vaga IN "
+            + "('CLASSIFICADO_MASCULINO', 'CLASSIFICADO_FEMININO', 'HABILITADO_MASCULINO', 'HABILITADO_FEMININO', "
+            + "'RESERVADO'))";
+
+    private static final String MUDA_VAGA = "(c.campus_id IS DISTINCT FROM EXCLUDED.campus_id "
+            + "OR c.turno IS DISTINCT FROM EXCLUDED.turno OR c.genero IS DISTINCT FROM EXCLUDED.genero "
+            + "OR (? AND c.situacao IS DISTINCT FROM EXCLUDED.situacao))";
+
+    // ids dos CPFs já sincronizados no edital: só as linhas novas reservam id
+    private static final String EXISTENTES = "SELECT cpf, id FROM candidato WHERE edital_id = ? "
+            + "AND hash_conteudo IS NOT NULL AND cpf = ANY (?::text[])";
+
+    // Situação e motivo só são sobrescritos quando a planilha traz a coluna;
+    // senão valeria PENDENTE e a classificação feita no sistema seria perdida.
+    private static final String SINCRONIZAR = "INSERT INTO candidato AS c (id, nome, cpf, genero, data_nascimento, "
+            + "campus_id, turno, data_inscricao, hora_inscricao, edital_id, situacao, motivo_nao_classificacao, "
+            + "hash_conteudo) "
+            + "SELECT l.id, l.nome, l.cpf, l.genero::char(1), l.data_nascimento, l.campus_id, l.turno, "
+            + "l.data_inscricao, l.hora_inscricao, ?, l.situacao, l.motivo, l.hash "
+            + "FROM unnest(?::bigint[], ?::text[], ?::text[], ?::text[], ?::date[], ?::bigint[], ?::text[], "
+            + "?::date[], ?::time[], ?::text[], ?::text[], ?::text[]) "
+            + "AS l(id, nome, cpf, genero, data_nascimento, campus_id, turno, data_inscricao, hora_inscricao, "
+            + "situacao, motivo, hash) "
+            + "ON CONFLICT (cpf, edital_id) WHERE hash_conteudo IS NOT NULL DO UPDATE SET "
+            + "nome = EXCLUDED.nome, data_nascimento = EXCLUDED.data_nascimento, "
+            + "genero = CASE WHEN " + OCUPA_VAGA + " THEN c.genero ELSE EXCLUDED.genero END, "
+            + "campus_id = CASE WHEN " + OCUPA_VAGA + " THEN c.campus_id ELSE EXCLUDED.campus_id END, "
+            + "turno = CASE WHEN " + OCUPA_VAGA + " THEN c.turno ELSE EXCLUDED.turno END, "
+            + "data_inscricao = EXCLUDED.data_inscricao, hora_inscricao = EXCLUDED.hora_inscricao, "
+            + "situacao = CASE WHEN ? AND NOT " + OCUPA_VAGA + " THEN EXCLUDED.situacao ELSE c.situacao END, "
+            + "motivo_nao_classificacao = CASE WHEN ? AND NOT " + OCUPA_VAGA
+            + " THEN EXCLUDED.motivo_nao_classificacao ELSE c.motivo_nao_classificacao END, "
+            + "hash_conteudo = CASE WHEN " + OCUPA_VAGA + " AND " + MUDA_VAGA
+            + " THEN c.hash_conteudo ELSE EXCLUDED.hash_conteudo END "
+            + "WHERE c.hash_conteudo IS DISTINCT FROM EXCLUDED.hash_conteudo "
+            + "RETURNING (xmax = 0)";
+
+    /**
+     * Contagem de um lote. O mesmo CPF não pode aparecer duas vezes em um único
+     * INSERT ... ON CONFLICT: repetições dentro do lote são descartadas (vale a
+     * primeira) e contam como inalteradas.
+     */
+    public record Resultado(int inseridos, int atualizados, int inalterados) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AtualizacaoCandidatoService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Prepara o edital para a sincronização; devolve quantos candidatos antigos foram adotados. */
+    @Transactional
+    public int prepararEdital(Edital edital) {
+        return jdbcTemplate.update(ADOTAR_ANTIGOS, edital.getId());
+    }
+
+    /**
+     * Sincroniza um lote de candidatos do edital. Todos devem ter CPF e campus
+     * já resolvido (com id).
+     */
+    @Transactional
+    public Resultado gravarLote(Edital edital, List<Candidato> lote, boolean comSituacao, boolean comMotivo) {
+        if (lote.isEmpty()) {
+            return new Resultado(0, 0, 0);
+        }
+        Map<String, Candidato> porCpf = new LinkedHashMap<>();
+        for (Candidato c : lote) {
+            porCpf.putIfAbsent(Objects.requireNonNull(c.getCpf(), "CPF"), c);
+        }
+        List<Candidato> linhas = new ArrayList<>(porCpf.values());
+        int n = linhas.size();
+
+        Map<String, Long> existentes = new HashMap<>();
+        jdbcTemplate.query(EXISTENTES, ps -> {
+            ps.setLong(1, edital.getId());
+            ps.setArray(2, ps.getConnection().createArrayOf("text", porCpf.keySet().toArray()));
+        }, rs -> {
+            existentes.put(rs.getString(1), rs.getLong(2));
+        });
+        // se a linha existente sumir antes do INSERT, ele a recria com o mesmo id
+        long[] novos = ReservaIdsCandidato.reservar(jdbcTemplate, n - existentes.size());
+        int proximoNovo = 0;
+
+        Long[] id = new Long[n];
+        Long[] campus = new Long[n];
+        String[][] texto = new String[10][n];
+        for (int i = 0; i < n; i++) {
+            Candidato c = linhas.get(i);
+            Long existente = existentes.get(c.getCpf());
+            id[i] = existente != null ? existente : novos[proximoNovo++];
+            campus[i] = c.getCampus() != null ? c.getCampus().getId() : null;
+            texto[0][i] = c.getNome();
+            texto[1][i] = c.getCpf();
+            texto[2][i] = c.getGenero() != null ? c.getGenero().toString() : null;
+            texto[3][i] = c.getDataNascimento() != null ? c.getDataNascimento().toString() : null;
+            texto[4][i] = c.getTurno();
+            texto[5][i] = c.getDataInscricao() != null ? c.getDataInscricao().toString() : null;
+            texto[6][i] = c.getHoraInscricao() != null ? c.getHoraInscricao().toString() : null;
+            texto[7][i] = c.getSituacao() != null ? c.getSituacao().name() : null;
+            texto[8][i] = c.getMotivoNaoClassificacao();
+            texto[9][i] = hashConteudo(c);
+        }
+
+        List<Boolean> gravados = jdbcTemplate.query(SINCRONIZAR, ps -> {
+            Connection con = ps.getConnection();
+            int p = 1;
+            ps.setLong(p++, edital.getId());
+            ps.setArray(p++, con.createArrayOf("bigint", id));
+            ps.setArray(p++, con.createArrayOf("text", texto[0]));
+            ps.setArray(p++, con.createArrayOf("text", texto[1]));
+            ps.setArray(p++, con.createArrayOf("text", texto[2]));
+            ps.setArray(p++, con.createArrayOf("text", texto[3]));
+            ps.setArray(p++, con.createArrayOf("bigint", campus));
+            ps.setArray(p++, con.createArrayOf("text", texto[4]));
+            ps.setArray(p++, con.createArrayOf("text", texto[5]));
+            ps.setArray(p++, con.createArrayOf("text", texto[6]));
+            ps.setArray(p++, con.createArrayOf("text", texto[7]));
+            ps.setArray(p++, con.createArrayOf("text", texto[8]));
+            ps.setArray(p++, con.createArrayOf("text", texto[9]));
+            ps.setBoolean(p++, comSituacao);
+            ps.setBoolean(p++, comMotivo);
+            ps.setBoolean(p, comSituacao);
+        }, (rs, i) -> rs.getBoolean(1));
+
+        int inseridos = 0;
+        for (Boolean inserido : gravados) {
+            if (Boolean.TRUE.equals(inserido)) {
+                inseridos++;
+            }
+        }
+        int atualizados = gravados.size() - inseridos;
+        return new Resultado(inseridos, atualizados, lote.size() - inseridos - atualizados);
+    }
+
+    /**
+     * MD5 dos campos que vêm da planilha. O campus entra pelo nome, como está
+     * no arquivo, para o hash não depender de ids.
+     */
+    static String hashConteudo(Candidato c) {
+        StringBuilder sb = new StringBuilder(160);
+        campo(sb, c.getNome());
+        campo(sb, c.getCpf());
+        campo(sb, c.getGenero());
+        campo(sb, c.getDataNascimento());
+        campo(sb, c.getCampus() != null ? c.getCampus().getNome() : null);
+        campo(sb, c.getTurno());
+        campo(sb, c.getDataInscricao());
+        campo(sb, c.getHoraInscricao());
+        campo(sb, c.getSituacao());
+        campo(sb, c.getMotivoNaoClassificacao());
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(md5.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // separador que não aparece em texto de planilha; nulo é diferente de vazio
+    private static void campo(StringBuilder sb, Object valor) {
+        sb.append(valor == null ? "\u0000" : valor.toString()).append('\u001f');
+    }
+}
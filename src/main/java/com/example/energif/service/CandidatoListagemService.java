@@ -0,0 +1,386 @@
+package com.example.energif.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.energif.model.SituacaoCandidato;
+import com.example.energif.model.TipoVaga;
+import com.example.energif.repository.CandidatoRepository;
+import com.example.energif.repository.CandidatoResumo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Listagem de candidatos com os filtros da tela de candidatos.
+ *
+ * {@link #listarPagina} atende a paginação numerada: página, total e contagem
+ * por situação saem de um único comando, com o filtro avaliado uma vez. Sem
+ * pesquisa por texto nem faixa etária, as contagens vêm prontas da tabela de
+ * estatísticas ({@link EstatisticaCandidatoService}) e só a página é consultada.
+ *
+ * {@link #listar} é a paginação por cursor (keyset): em vez de OFFSET, cada
+ * página continua a partir da chave do último candidato da anterior, na ordem
+ * (data_inscricao, hora_inscricao, id); o custo de uma página não cresce com a
+ * profundidade. O resultado é um {@link Slice}: não há consulta de contagem, só
+ * uma linha a mais para saber se existe próxima página.
+ *
+ * Nos dois modos a consulta filtrada devolve só ids; os candidatos da página
+ * são lidos depois como {@link CandidatoResumo}, em transação somente leitura.
+ */
+@Service
+public class CandidatoListagemService {
+
+    // Candidatos sem data/hora de inscrição vão para o fim, como no ORDER BY ... ASC
+    // do PostgreSQL; a expressão é a mesma do índice ix_candidato_ordem_inscricao (V6).
+    private static final String[] CHAVE = { "COALESCE(c.data_inscricao, CAST('infinity' AS date))",
+            "COALESCE(c.hora_inscricao, CAST('24:00' AS time))", "c.id" };
+
+    /**
+     * Filtros da listagem, já normalizados (null = sem filtro). {@code idade} é
+     * "maior" ou "menor" (de 18 anos); nas consultas vira um intervalo de data
+     * de nascimento.
+     */
+    public record Filtros(String q, Long editalId, Long campusId, Character genero, String idade, String situacao,
+            String turno) {
+
+        /** Filtros da tela de candidatos, que não filtra por edital. */
+        public Filtros(String q, Long campusId, Character genero, String idade, String situacao, String turno) {
+            this(q, null, campusId, genero, idade, situacao, turno);
+        }
+
+        /** Maiores de idade: nascidos até esta data. */
+        public LocalDate nascidoAte() {
+            return "maior".equals(idade) ? maioridade() : null;
+        }
+
+        /** Menores de idade: nascidos depois desta data. */
+        public LocalDate nascidoApos() {
+            return "menor".equals(idade) ? maioridade() : null;
+        }
+
+        private static LocalDate maioridade() {
+            return LocalDate.now().minusYears(18);
+        }
+    }
+
+    /**
+     * Posição na listagem: chave do último candidato entregue. Vai para o
+     * cliente como texto opaco ({@link #codificar()}).
+     */
+    public record Cursor(String data, String hora, long id) {
+
+        // linha de FILTRADOS_COM_CHAVE: id, data e hora já em texto
+        static Cursor de(Object[] linha) {
+            return new Cursor(linha[1] != null ? linha[1].toString() : "infinity",
+                    linha[2] != null ? linha[2].toString() : "24:00", ((Number) linha[0]).longValue());
+        }
+
+        public String codificar() {
+            String chave = data + "|" + hora + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /** @throws IllegalArgumentException se o texto não for um cursor válido */
+        public static Cursor decodificar(String cursor) {
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split("\\|");
+                if (partes.length != 3) {
+                    throw new IllegalArgumentException("Cursor inválido");
+                }
+                // valida antes de ir para o SQL
+                if (!"infinity".equals(partes[0])) {
+                    LocalDate.parse(partes[0]);
+                }
+                if (!"24:00".equals(partes[1])) {
+                    LocalTime.parse(partes[1]);
+                }
+                return new Cursor(partes[0], partes[1], Long.parseLong(partes[2]));
+            } catch (IllegalArgumentException | java.time.DateTimeException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+        }
+    }
+
+    /** Uma página da listagem por cursor; {@code proximo} é null na última. */
+    public record PaginaCursor(Slice<CandidatoResumo> candidatos, String proximo) {
+    }
+
+    /**
+     * Página numerada com a contagem por situação (nome do enum; null para
+     * candidatos sem situação) de todo o resultado filtrado.
+     */
+    public record PaginaListagem(Page<CandidatoResumo> candidatos, Map<String, Long> porSituacao) {
+    }
+
+    /*
+     * Os candidatos filtrados são materializados uma vez (só as colunas usadas
+     * aqui); da mesma CTE saem as contagens por situação, cuja soma é o total,
+     * e os ids da página. Linhas com id nulo são contagens; as demais, a página.
+     */
+    private static final String PAGINA_COM_CONTAGENS = "WITH filtrados AS MATERIALIZED ("
+            + "SELECT c.id, c.situacao, c.data_inscricao, c.hora_inscricao "
+            + "FROM candidato c LEFT JOIN campus cp ON cp.id = c.campus_id "
+            + CandidatoRepository.FILTROS_LISTAGEM + ") "
+            + "SELECT NULL AS id, f.situacao, count(*) AS total FROM filtrados f GROUP BY f.situacao "
+            + "UNION ALL (SELECT p.id, NULL, NULL FROM filtrados p ORDER BY "
+            + "p.data_inscricao {dir}, p.hora_inscricao {dir}, p.id {dir} LIMIT :limite OFFSET :inicio)";
+
+    private static final String FILTRADOS = "SELECT c.id FROM candidato c LEFT JOIN campus cp ON cp.id = c.campus_id "
+            + CandidatoRepository.FILTROS_LISTAGEM;
+
+    // a chave vem da própria consulta: a página pode perder candidatos apagados
+    // entre ela e a projeção, e o cursor não pode depender deles
+    private static final String FILTRADOS_COM_CHAVE = "SELECT c.id, CAST(c.data_inscricao AS text), "
+            + "CAST(c.hora_inscricao AS text) FROM candidato c LEFT JOIN campus cp ON cp.id = c.campus_id "
+            + CandidatoRepository.FILTROS_LISTAGEM;
+
+    private static final String PAGINA = FILTRADOS
+            + " ORDER BY c.data_inscricao {dir}, c.hora_inscricao {dir}, c.id {dir} LIMIT :limite OFFSET :inicio";
+
+    // ids por consulta de projeção nos relatórios (cada id é um parâmetro do IN)
+    private static final int IDS_POR_CONSULTA = 1000;
+
+    // mesmas colunas de CandidatoResumo, na ordem do construtor
+    private static final String RESUMOS_FILTRADOS = "SELECT c.id, c.nome, c.cpf, cp.nome AS campus_nome, "
+            + "e.descricao AS edital_descricao, c.data_nascimento, c.turno, c.genero, c.data_inscricao, "
+            + "c.hora_inscricao, c.situacao, c.motivo_nao_classificacao, c.tipo_vaga "
+            + "FROM candidato c LEFT JOIN campus cp ON cp.id = c.campus_id LEFT JOIN edital e ON e.id = c.edital_id "
+            + CandidatoRepository.FILTROS_LISTAGEM + " ORDER BY c.id";
+
+    // linhas trazidas do cursor do banco por vez em percorrer()
+    private static final int LINHAS_POR_BUSCA = 500;
+
+    private final CandidatoRepository candidatoRepository;
+    private final EstatisticaCandidatoService estatisticaService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CandidatoListagemService(CandidatoRepository candidatoRepository,
+            EstatisticaCandidatoService estatisticaService) {
+        this.candidatoRepository = candidatoRepository;
+        this.estatisticaService = estatisticaService;
+    }
+
+    /**
+     * Página {@code pagina} (base 0) da listagem, em ordem de inscrição crescente
+     * ({@code maisAntigos}) ou decrescente, com total e contagem por situação.
+     * Os candidatos da página são carregados depois, pelos ids.
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public PaginaListagem listarPagina(Filtros filtros, boolean maisAntigos, int pagina, int tamanho) {
+        boolean contagemPronta = contagemPronta(filtros);
+        String sql = (contagemPronta ? PAGINA : PAGINA_COM_CONTAGENS).replace("{dir}", maisAntigos ? "ASC" : "DESC");
+        Map<String, Long> porSituacao;
+        List<Long> ids = new ArrayList<>(tamanho);
+        if (contagemPronta) {
+            porSituacao = estatisticaService.porSituacao(filtros.editalId(), filtros.campusId(), filtros.genero(),
+                    filtros.situacao(), filtros.turno());
+            List<Number> linhas = filtrar(entityManager.createNativeQuery(sql).unwrap(NativeQuery.class), filtros)
+                    .setParameter("limite", tamanho)
+                    .setParameter("inicio", (long) pagina * tamanho)
+                    .getResultList();
+            for (Number id : linhas) {
+                ids.add(id.longValue());
+            }
+        } else {
+            porSituacao = new LinkedHashMap<>();
+            List<Object[]> linhas = filtrar(entityManager.createNativeQuery(sql).unwrap(NativeQuery.class), filtros)
+                    .setParameter("limite", tamanho)
+                    .setParameter("inicio", (long) pagina * tamanho)
+                    .getResultList();
+            for (Object[] linha : linhas) {
+                if (linha[0] != null) {
+                    ids.add(((Number) linha[0]).longValue());
+                } else {
+                    porSituacao.merge(linha[1] != null ? linha[1].toString() : null,
+                            ((Number) linha[2]).longValue(), Long::sum);
+                }
+            }
+        }
+        long total = porSituacao.values().stream().mapToLong(Long::longValue).sum();
+        return new PaginaListagem(new PageImpl<>(resumos(ids), PageRequest.of(pagina, tamanho), total), porSituacao);
+    }
+
+    /**
+     * Todos os candidatos que atendem aos filtros, sem paginação e sem ordem
+     * definida (relatórios, que ordenam por conta própria).
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<CandidatoResumo> listarTodos(Filtros filtros) {
+        List<Number> linhas = filtrar(entityManager.createNativeQuery(FILTRADOS).unwrap(NativeQuery.class), filtros)
+                .getResultList();
+        List<Long> ids = new ArrayList<>(linhas.size());
+        for (Number id : linhas) {
+            ids.add(id.longValue());
+        }
+        List<CandidatoResumo> todos = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += IDS_POR_CONSULTA) {
+            todos.addAll(resumos(ids.subList(i, Math.min(ids.size(), i + IDS_POR_CONSULTA))));
+        }
+        return todos;
+    }
+
+    /** Candidatos de um campus (ou de todos) e turno opcional, em ordem de inscrição (resultado final). */
+    @Transactional(readOnly = true)
+    public List<CandidatoResumo> listarOrdemInscricao(Long campusId, String turno) {
+        return candidatoRepository.findResumosOrdemInscricao(campusId, turno);
+    }
+
+    /**
+     * Entrega ao {@code destino}, um por vez e em ordem de id, todos os
+     * candidatos que atendem aos filtros. O resultado não é materializado: o
+     * PostgreSQL só usa cursor dentro de transação, com fetch size definido,
+     * e as linhas chegam em blocos de {@value #LINHAS_POR_BUSCA}.
+     *
+     * @return quantidade de candidatos entregues
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public long percorrer(Filtros filtros, Consumer<CandidatoResumo> destino) {
+        NativeQuery<Object[]> query = filtrar(
+                entityManager.createNativeQuery(RESUMOS_FILTRADOS).unwrap(NativeQuery.class), filtros)
+                .addScalar("id", Long.class)
+                .addScalar("nome", String.class)
+                .addScalar("cpf", String.class)
+                .addScalar("campus_nome", String.class)
+                .addScalar("edital_descricao", String.class)
+                .addScalar("data_nascimento", LocalDate.class)
+                .addScalar("turno", String.class)
+                .addScalar("genero", Character.class)
+                .addScalar("data_inscricao", LocalDate.class)
+                .addScalar("hora_inscricao", LocalTime.class)
+                .addScalar("situacao", String.class)
+                .addScalar("motivo_nao_classificacao", String.class)
+                .addScalar("tipo_vaga", String.class)
+                .setFetchSize(LINHAS_POR_BUSCA)
+                .setReadOnly(true);
+        long entregues = 0;
+        try (Stream<Object[]> linhas = query.getResultStream()) {
+            for (Object[] l : (Iterable<Object[]>) linhas::iterator) {
+                destino.accept(new CandidatoResumo((Long) l[0], (String) l[1], (String) l[2], (String) l[3],
+                        (String) l[4], (LocalDate) l[5], (String) l[6], (Character) l[7], (LocalDate) l[8],
+                        (LocalTime) l[9], l[10] != null ? SituacaoCandidato.valueOf((String) l[10]) : null,
+                        (String) l[11], l[12] != null ? TipoVaga.valueOf((String) l[12]) : null));
+                entregues++;
+            }
+        }
+        return entregues;
+    }
+
+    // projeções dos candidatos, na ordem dos ids
+    private List<CandidatoResumo> resumos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, CandidatoResumo> porId = new HashMap<>();
+        for (CandidatoResumo c : candidatoRepository.findResumosByIdIn(ids)) {
+            porId.put(c.id(), c);
+        }
+        List<CandidatoResumo> conteudo = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            CandidatoResumo c = porId.get(id);
+            if (c != null) {
+                conteudo.add(c);
+            }
+        }
+        return conteudo;
+    }
+
+    /** Contagem por situação do resultado filtrado, para a paginação por cursor (que não conta). */
+    @Transactional(readOnly = true)
+    public Map<String, Long> contarPorSituacao(Filtros filtros) {
+        if (contagemPronta(filtros)) {
+            return estatisticaService.porSituacao(filtros.editalId(), filtros.campusId(), filtros.genero(),
+                    filtros.situacao(), filtros.turno());
+        }
+        Map<String, Long> porSituacao = new LinkedHashMap<>();
+        for (Object[] linha : candidatoRepository.countSituacaoByFilters(filtros.q(), filtros.editalId(),
+                filtros.campusId(), filtros.genero(), filtros.nascidoAte(), filtros.nascidoApos(),
+                filtros.situacao(), filtros.turno())) {
+            porSituacao.merge(linha[0] != null ? linha[0].toString() : null, ((Number) linha[1]).longValue(),
+                    Long::sum);
+        }
+        return porSituacao;
+    }
+
+    // os demais filtros fazem parte da chave de estatistica_candidato
+    private static boolean contagemPronta(Filtros filtros) {
+        return filtros.q() == null && filtros.nascidoAte() == null && filtros.nascidoApos() == null;
+    }
+
+    // tipos explícitos: filtros nulos sem tipo não são aceitos pelo PostgreSQL em "? IS NULL"
+    private static <T> NativeQuery<T> filtrar(NativeQuery<T> query, Filtros filtros) {
+        return query.setParameter("q", filtros.q(), String.class)
+                .setParameter("editalId", filtros.editalId(), Long.class)
+                .setParameter("campusId", filtros.campusId(), Long.class)
+                .setParameter("genero", filtros.genero(), Character.class)
+                .setParameter("nascidoAte", filtros.nascidoAte(), LocalDate.class)
+                .setParameter("nascidoApos", filtros.nascidoApos(), LocalDate.class)
+                .setParameter("situacao", filtros.situacao(), String.class)
+                .setParameter("turno", filtros.turno(), String.class);
+    }
+
+    /**
+     * Próxima página depois de {@code cursor} (ou a primeira, se null), em
+     * ordem de inscrição crescente ({@code maisAntigos}) ou decrescente.
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public PaginaCursor listar(Filtros filtros, boolean maisAntigos, String cursor, int tamanho) {
+        Cursor posicao = cursor != null && !cursor.isBlank() ? Cursor.decodificar(cursor) : null;
+        String direcao = maisAntigos ? "ASC" : "DESC";
+
+        StringBuilder sql = new StringBuilder(FILTRADOS_COM_CHAVE);
+        if (posicao != null) {
+            sql.append(" AND (").append(String.join(", ", CHAVE)).append(maisAntigos ? ") > (" : ") < (")
+                    .append("CAST(:cursorData AS date), CAST(:cursorHora AS time), :cursorId)");
+        }
+        sql.append(" ORDER BY ").append(String.join(" " + direcao + ", ", CHAVE)).append(' ').append(direcao)
+                .append(" LIMIT :limite");
+
+        NativeQuery<Object[]> query = filtrar(
+                entityManager.createNativeQuery(sql.toString()).unwrap(NativeQuery.class), filtros)
+                .setParameter("limite", tamanho + 1);
+        if (posicao != null) {
+            query.setParameter("cursorData", posicao.data())
+                    .setParameter("cursorHora", posicao.hora())
+                    .setParameter("cursorId", posicao.id());
+        }
+        List<Object[]> linhas = query.getResultList();
+        boolean temProxima = linhas.size() > tamanho;
+        if (temProxima) {
+            linhas = linhas.subList(0, tamanho);
+        }
+        List<Long> ids = new ArrayList<>(linhas.size());
+        for (Object[] linha : linhas) {
+            ids.add(((Number) linha[0]).longValue());
+        }
+
+        List<CandidatoResumo> pagina = resumos(ids);
+        String proximo = temProxima ? Cursor.de(linhas.get(linhas.size() - 1)).codificar() : null;
+        return new PaginaCursor(new SliceImpl<>(pagina, PageRequest.of(0, tamanho), temProxima), proximo);
+    }
+}
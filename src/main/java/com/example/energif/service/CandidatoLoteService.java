@@ -0,0 +1,38 @@
+package com.example.energif.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.energif.model.Candidato;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Gravação de candidatos em lote, usada pela importação de planilhas.
+ *
+ * Cada lote é gravado em uma única transação: os candidatos são persistidos,
+ * o contexto é descarregado uma vez (o Hibernate agrupa os INSERTs conforme
+ * hibernate.jdbc.batch_size) e depois limpo, para que a memória não acumule
+ * entidades gerenciadas entre lotes.
+ */
+@Service
+public class CandidatoLoteService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public void gravarLote(List<Candidato> lote) {
+        if (lote == null || lote.isEmpty()) {
+            return;
+        }
+        for (Candidato c : lote) {
+            entityManager.persist(c);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.energif.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.energif.model.Candidato;
+import com.example.energif.model.Edital;
+
+/**
+ * Carga rápida de candidatos via COPY do PostgreSQL.
+ *
+ * Os candidatos mapeados da planilha são escritos em CSV direto para uma
+ * tabela temporária ({@code COPY ... FROM STDIN}), sem passar pelo contexto
+ * de persistência. Em seguida, poucos comandos set-based criam os campi,
+ * CampusEdital e turnos que faltam e inserem todos os candidatos de uma vez.
+ * Tudo acontece em uma única transação: se algo falhar nada é gravado.
+ */
+@Service
+public class CargaRapidaCandidatoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CargaRapidaCandidatoService.class);
+
+    private static final int BLOCO_IDS = ReservaIdsCandidato.BLOCO_IDS;
+
+    private static final String CRIAR_STAGING = "CREATE TEMP TABLE candidato_carga ("
+            + "ordem integer NOT NULL, nome text, cpf text, genero char(1), data_nascimento date, "
+            + "campus_nome text, turno text, data_inscricao date, hora_inscricao time(6), "
+            + "situacao text, motivo text) ON COMMIT DROP";
+
+    private static final String COPY_STAGING = "COPY candidato_carga (ordem, nome, cpf, genero, data_nascimento, "
+            + "campus_nome, turno, data_inscricao, hora_inscricao, situacao, motivo) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERIR_CAMPI = "INSERT INTO campus (nome, numero_vagas_reservadas, "
+            + "numero_vagas_ampla_concorrencia, numero_vagas_cadastro_reserva, numero_vagas_classificado, "
+            + "numero_vagas_habilitado, vagas_reservadas_ocupadas, vagas_ampla_ocupadas, "
+            + "vagas_classificado_ocupadas, vagas_habilitado_ocupadas) "
+            + "SELECT DISTINCT s.campus_nome, 0, 0, 0, 0, 0, 0, 0, 0, 0 FROM candidato_carga s "
+            + "WHERE s.campus_nome IS NOT NULL AND s.campus_nome <> '' "
+            + "ON CONFLICT (nome) DO NOTHING";
+
+    private static final String INSERIR_CAMPUS_EDITAL = "INSERT INTO campus_edital (campus_id, edital_id) "
+            + "SELECT DISTINCT cp.id, ? FROM candidato_carga s JOIN campus cp ON cp.nome = s.campus_nome "
+            + "WHERE s.turno IS NOT NULL AND s.turno <> '' "
+            + "ON CONFLICT (campus_id, edital_id) DO NOTHING";
+
+    private static final String INSERIR_TURNOS = "INSERT INTO campus_edital_turno (campus_edital_id, turno, "
+            + "numero_vagas_reservadas, numero_vagas_ampla_concorrencia, numero_vagas_cadastro_reserva, "
+            + "numero_vagas_classificado_masculino, numero_vagas_classificado_feminino, "
+            + "numero_vagas_habilitado_masculino, numero_vagas_habilitado_feminino, numero_vagas_reservado, "
+            + "vagas_classificado_masculino_ocupadas, vagas_classificado_feminino_ocupadas, "
+            + "vagas_habilitado_masculino_ocupadas, vagas_habilitado_feminino_ocupadas, vagas_reservado_ocupadas, "
+            + "vagas_reservadas_ocupadas, vagas_ampla_ocupadas, vagas_cadastro_reserva_ocupadas) "
+            + "SELECT DISTINCT ce.id, s.turno, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 "
+            + "FROM candidato_carga s JOIN campus cp ON cp.nome = s.campus_nome "
+            + "JOIN campus_edital ce ON ce.campus_id = cp.id AND ce.edital_id = ? "
+            + "WHERE s.turno IS NOT NULL AND s.turno <> '' "
+            + "ON CONFLICT (campus_edital_id, turno) DO NOTHING";
+
+    // Cada hi reservado de candidato_seq equivale ao bloco (hi - 49 .. hi]; ver ReservaIdsCandidato.
+    private static final String INSERIR_CANDIDATOS = "INSERT INTO candidato (id, nome, cpf, genero, data_nascimento, "
+            + "campus_id, turno, data_inscricao, hora_inscricao, edital_id, situacao, motivo_nao_classificacao) "
+            + "SELECT blk.hi - " + (BLOCO_IDS - 1) + " + ((s.ordem - 1) % " + BLOCO_IDS + "), "
+            + "s.nome, s.cpf, s.genero, s.data_nascimento, cp.id, s.turno, s.data_inscricao, s.hora_inscricao, "
+            + "?, s.situacao, s.motivo "
+            + "FROM candidato_carga s "
+            + "JOIN unnest(?::bigint[]) WITH ORDINALITY AS blk(hi, n) ON blk.n = (s.ordem - 1) / " + BLOCO_IDS + " + 1 "
+            + "LEFT JOIN campus cp ON cp.nome = s.campus_nome "
+            + "ORDER BY s.ordem";
+
+    /** Fonte dos candidatos: recebe o destino e empurra cada candidato mapeado para ele. */
+    @FunctionalInterface
+    public interface ProdutorCandidatos {
+        void produzir(Consumer<Candidato> destino) throws Exception;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public CargaRapidaCandidatoService(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public int carregar(Edital edital, ProdutorCandidatos produtor) throws Exception {
+        long inicio = System.currentTimeMillis();
+        Long editalId = edital != null ? edital.getId() : null;
+
+        jdbcTemplate.execute(CRIAR_STAGING);
+
+        // a conexão da transação, para o COPY ver a tabela temporária
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        int[] ordem = { 0 };
+        try {
+            PGConnection pg = con.unwrap(PGConnection.class);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pg, COPY_STAGING, 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+                produtor.produzir(c -> {
+                    try {
+                        escreverLinha(out, ++ordem[0], c);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(con, dataSource);
+        }
+        int total = ordem[0];
+        logger.info("Carga rápida: {} linhas copiadas para a tabela temporária", total);
+        if (total == 0) {
+            return 0;
+        }
+
+        int campi = jdbcTemplate.update(INSERIR_CAMPI);
+        int turnos = 0;
+        if (editalId != null) {
+            jdbcTemplate.update(INSERIR_CAMPUS_EDITAL, editalId);
+            turnos = jdbcTemplate.update(INSERIR_TURNOS, editalId);
+        }
+
+        Object[] blocos = ReservaIdsCandidato.reservarBlocos(jdbcTemplate, total).toArray();
+        int inseridos = jdbcTemplate.update(INSERIR_CANDIDATOS, ps -> {
+            if (editalId != null) {
+                ps.setLong(1, editalId);
+            } else {
+                ps.setNull(1, java.sql.Types.BIGINT);
+            }
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", blocos));
+        });
+
+        logger.info("Carga rápida concluída em {} ms: {} candidatos, {} campi novos, {} turnos novos",
+                System.currentTimeMillis() - inicio, inseridos, campi, turnos);
+        return inseridos;
+    }
+
+    private void escreverLinha(Writer out, int ordem, Candidato c) throws IOException {
+        out.write(Integer.toString(ordem));
+        campo(out, c.getNome());
+        campo(out, c.getCpf());
+        campo(out, c.getGenero() != null ? c.getGenero().toString() : null);
+        campo(out, c.getDataNascimento() != null ? c.getDataNascimento().toString() : null);
+        campo(out, c.getCampus() != null ? c.getCampus().getNome() : null);
+        campo(out, c.getTurno());
+        campo(out, c.getDataInscricao() != null ? c.getDataInscricao().toString() : null);
+        campo(out, c.getHoraInscricao() != null ? c.getHoraInscricao().toString() : null);
+        campo(out, c.getSituacao() != null ? c.getSituacao().name() : null);
+        campo(out, c.getMotivoNaoClassificacao());
+        out.write('\n');
+    }
+
+    // CSV do COPY: campo vazio sem aspas é NULL; texto vai sempre entre aspas
+    private static void campo(Writer out, String valor) throws IOException {
+        out.write(',');
+        if (valor == null) {
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char ch = valor.charAt(i);
+            if (ch == '"') {
+                out.write('"');
+            }
+            out.write(ch);
+        }
+        out.write('"');
+    }
+}
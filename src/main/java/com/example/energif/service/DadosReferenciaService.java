@@ -0,0 +1,76 @@
+package com.example.energif.service;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import com.example.energif.model.Campus;
+import com.example.energif.model.Motivo;
+import com.example.energif.repository.CampusRepository;
+import com.example.energif.repository.CandidatoRepository;
+import com.example.energif.repository.MotivoRepository;
+
+/**
+ * Dados de referência usados pelas telas a cada renderização: campi, motivos
+ * de não classificação e turnos distintos dos candidatos (este último é um
+ * SELECT DISTINCT sobre a tabela candidato inteira).
+ *
+ * Mudam só quando um administrador os edita ou uma importação roda, então
+ * ficam no cache (Caffeine, configurado em application.properties) e quem os
+ * altera chama o método de invalidação correspondente. As listas devolvidas
+ * são imutáveis e compartilhadas: servem para exibição, não para alteração.
+ */
+@Service
+public class DadosReferenciaService {
+
+    public static final String CACHE_CAMPI = "campi";
+    public static final String CACHE_MOTIVOS = "motivos";
+    public static final String CACHE_TURNOS = "turnos";
+
+    private final CampusRepository campusRepository;
+    private final MotivoRepository motivoRepository;
+    private final CandidatoRepository candidatoRepository;
+
+    public DadosReferenciaService(CampusRepository campusRepository, MotivoRepository motivoRepository,
+            CandidatoRepository candidatoRepository) {
+        this.campusRepository = campusRepository;
+        this.motivoRepository = motivoRepository;
+        this.candidatoRepository = candidatoRepository;
+    }
+
+    /** Campi em ordem de nome. */
+    @Cacheable(CACHE_CAMPI)
+    public List<Campus> campi() {
+        return Collections.unmodifiableList(campusRepository.findAll(Sort.by("nome")));
+    }
+
+    @Cacheable(CACHE_MOTIVOS)
+    public List<Motivo> motivos() {
+        return Collections.unmodifiableList(motivoRepository.findAll());
+    }
+
+    /** Turnos distintos informados pelos candidatos. */
+    @Cacheable(CACHE_TURNOS)
+    public List<String> turnos() {
+        return Collections.unmodifiableList(candidatoRepository.findDistinctTurno());
+    }
+
+    /** Um campus foi criado, alterado ou excluído. */
+    @CacheEvict(cacheNames = CACHE_CAMPI, allEntries = true)
+    public void campiAlterados() {
+    }
+
+    /** Um motivo foi criado, alterado ou excluído. */
+    @CacheEvict(cacheNames = CACHE_MOTIVOS, allEntries = true)
+    public void motivosAlterados() {
+    }
+
+    /** Candidatos foram importados ou excluídos: podem ter surgido (ou sumido) campi e turnos. */
+    @CacheEvict(cacheNames = { CACHE_CAMPI, CACHE_TURNOS }, allEntries = true)
+    public void candidatosAlterados() {
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.energif.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Contagens de candidatos por situação lidas da tabela estatistica_candidato
+ * (V7), mantida por triggers em candidato com uma linha por chave (V10): a
+ * leitura soma as linhas das chaves filtradas em vez de agrupar a tabela de
+ * candidatos inteira.
+ *
+ * Só atende filtros que fazem parte da chave da tabela (edital, campus,
+ * gênero, situação e turno); pesquisa por texto e faixa etária continuam
+ * contando sobre candidato.
+ */
+@Service
+public class EstatisticaCandidatoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstatisticaCandidatoService.class);
+
+    private static final String POR_SITUACAO = "SELECT e.situacao, sum(e.total) FROM estatistica_candidato e "
+            + "WHERE (CAST(? AS bigint) IS NULL OR e.edital_id = ?) "
+            + "AND (CAST(? AS bigint) IS NULL OR e.campus_id = ?) "
+            + "AND (CAST(? AS char(1)) IS NULL OR e.genero = ?) "
+            + "AND (CAST(? AS text) IS NULL OR e.situacao = ?) "
+            + "AND (CAST(? AS text) IS NULL OR lower(e.turno) = lower(?)) "
+            + "GROUP BY e.situacao HAVING sum(e.total) <> 0";
+
+    /*
+     * Chaves que chegaram a zero (ex.: candidatos excluídos ou que mudaram de
+     * situação). Se outra transação somar na chave ao mesmo tempo, o DELETE
+     * relê a linha e a mantém.
+     */
+    private static final String COMPACTAR = "DELETE FROM estatistica_candidato WHERE total = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EstatisticaCandidatoService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Quantidade de candidatos por situação (nome do enum; null para sem
+     * situação); filtros nulos não filtram.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> porSituacao(Long editalId, Long campusId, Character genero, String situacao,
+            String turno) {
+        String generoTexto = genero != null ? genero.toString() : null;
+        Map<String, Long> porSituacao = new LinkedHashMap<>();
+        jdbcTemplate.query(POR_SITUACAO, rs -> {
+            porSituacao.put(rs.getString(1), rs.getLong(2));
+        }, editalId, editalId, campusId, campusId, generoTexto, generoTexto, situacao, situacao, turno, turno);
+        return porSituacao;
+    }
+
+    /** Remove as chaves zeradas (chamado ao fim das importações). */
+    @Transactional
+    public int compactar() {
+        int linhas = jdbcTemplate.update(COMPACTAR);
+        logger.debug("Estatística de candidatos compactada: {} linhas", linhas);
+        return linhas;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.energif.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.energif.repository.CandidatoResumo;
+import com.example.energif.service.CandidatoListagemService.Filtros;
+
+/**
+ * Exportação dos candidatos filtrados em CSV ou XLSX, com os mesmos filtros
+ * da tela de candidatos.
+ *
+ * As linhas vêm do cursor de {@link CandidatoListagemService#percorrer} e são
+ * escritas uma a uma, então a memória usada não depende da quantidade de
+ * candidatos. O CSV começa a chegar ao navegador assim que o primeiro buffer
+ * enche; o XLSX é montado com SXSSF, que mantém só as últimas
+ * {@value #JANELA_LINHAS_XLSX} linhas em memória e despeja as demais em um
+ * arquivo temporário, enviado inteiro no fim (o formato é um zip).
+ */
+@Service
+public class ExportacaoCandidatoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacaoCandidatoService.class);
+
+    static final int JANELA_LINHAS_XLSX = 100;
+
+    private static final String[] CABECALHO = { "ID", "Nome", "CPF", "Campus", "Edital", "Data de Nascimento",
+            "Turno", "Gênero", "Data de Inscrição", "Hora de Inscrição", "Situação", "Motivo", "Tipo de Vaga" };
+
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final CandidatoListagemService candidatoListagemService;
+
+    public ExportacaoCandidatoService(CandidatoListagemService candidatoListagemService) {
+        this.candidatoListagemService = candidatoListagemService;
+    }
+
+    /**
+     * CSV separado por ponto e vírgula, em UTF-8 com BOM, como o Excel em
+     * português espera. Devolve a quantidade de candidatos exportados.
+     */
+    public long exportarCsv(Filtros filtros, OutputStream saida) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 1 << 16);
+        out.write('\uFEFF'); // BOM
+        escreverLinhaCsv(out, CABECALHO);
+        long total;
+        try {
+            total = candidatoListagemService.percorrer(filtros, c -> {
+                try {
+                    escreverLinhaCsv(out, colunas(c));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        logger.info("Exportação CSV de candidatos: {} linhas ({})", total, filtros);
+        return total;
+    }
+
+    /** Planilha XLSX com uma aba; devolve a quantidade de candidatos exportados. */
+    public long exportarXlsx(Filtros filtros, OutputStream saida) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(JANELA_LINHAS_XLSX);
+        try {
+            // temporários compactados: o arquivo em disco fica perto do tamanho do xlsx final
+            workbook.setCompressTempFiles(true);
+            SXSSFSheet sheet = workbook.createSheet("Candidatos");
+
+            Font negrito = workbook.createFont();
+            negrito.setBold(true);
+            CellStyle estiloCabecalho = workbook.createCellStyle();
+            estiloCabecalho.setFont(negrito);
+            Row cabecalho = sheet.createRow(0);
+            for (int i = 0; i < CABECALHO.length; i++) {
+                cabecalho.createCell(i).setCellValue(CABECALHO[i]);
+                cabecalho.getCell(i).setCellStyle(estiloCabecalho);
+            }
+            sheet.createFreezePane(0, 1);
+
+            int[] proximaLinha = { 1 };
+            long total = candidatoListagemService.percorrer(filtros, c -> {
+                Row row = sheet.createRow(proximaLinha[0]++);
+                row.createCell(0).setCellValue(c.id());
+                String[] colunas = colunas(c);
+                for (int i = 1; i < colunas.length; i++) {
+                    if (!colunas[i].isEmpty()) {
+                        row.createCell(i).setCellValue(colunas[i]);
+                    }
+                }
+            });
+            workbook.write(saida);
+            saida.flush();
+            logger.info("Exportação XLSX de candidatos: {} linhas ({})", total, filtros);
+            return total;
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    private static String[] colunas(CandidatoResumo c) {
+        return new String[] {
+                String.valueOf(c.id()),
+                texto(c.nome()),
+                texto(c.cpf()),
+                texto(c.campusNome()),
+                texto(c.editalDescricao()),
+                c.dataNascimento() != null ? c.dataNascimento().format(DATA) : "",
+                texto(c.turno()),
+                c.genero() != null ? c.genero().toString() : "",
+                c.dataInscricao() != null ? c.dataInscricao().format(DATA) : "",
+                c.horaInscricao() != null ? c.horaInscricao().format(HORA) : "",
+                c.situacao() != null ? c.situacao().getDescricao() : "",
+                texto(c.motivoNaoClassificacao()),
+                c.tipoVaga() != null ? c.tipoVaga().getDescricao() : "" };
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+
+    private static void escreverLinhaCsv(Writer out, String[] campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                out.write(';');
+            }
+            out.write(campoCsv(campos[i]));
+        }
+        out.write("\r\n");
+    }
+
+    /*
+     * Aspas quando o valor tem separador, aspas ou quebra de linha. Valores que
+     * começam com = + - @ viram texto (apóstrofo na frente) para o Excel não os
+     * interpretar como fórmula ao abrir o arquivo.
+     */
+    private static String campoCsv(String valor) {
+        if (!valor.isEmpty() && "=+-@".indexOf(valor.charAt(0)) >= 0) {
+            valor = "'" + valor;
+        }
+        if (valor.indexOf(';') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0
+                || valor.indexOf('\r') >= 0) {
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+        return valor;
+    }
+}
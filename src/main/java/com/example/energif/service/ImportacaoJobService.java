@@ -0,0 +1,213 @@
+package com.example.energif.service;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.energif.util.Filtro;
+import com.example.energif.util.ProgressoImportacao;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Executa importações de planilha em segundo plano.
+ *
+ * O upload só grava o arquivo e enfileira o job; a importação roda em um pool
+ * de tamanho fixo com fila limitada, fora das threads do Tomcat. O andamento
+ * fica disponível pelo id do job até alguns minutos depois de terminar.
+ */
+@Service
+public class ImportacaoJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoJobService.class);
+
+    public enum Status {
+        NA_FILA, EM_ANDAMENTO, CONCLUIDO, ERRO
+    }
+
+    /**
+     * PADRAO insere todas as linhas; INCREMENTAL só as posteriores à última
+     * inscrição do edital; ATUALIZACAO sincroniza pelo CPF dentro do edital.
+     */
+    public enum Modo {
+        PADRAO, CARGA_RAPIDA, INCREMENTAL, ATUALIZACAO
+    }
+
+    private final Filtro filtro;
+    private final ExecutorService executor;
+    private final long retencaoMillis;
+    private final Map<String, ImportacaoJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportacaoJobService(Filtro filtro,
+            @Value("${energif.importacao.jobs.threads:2}") int threads,
+            @Value("${energif.importacao.jobs.fila:10}") int fila,
+            @Value("${energif.importacao.jobs.retencao-minutos:30}") long retencaoMinutos) {
+        this.filtro = filtro;
+        this.retencaoMillis = TimeUnit.MINUTES.toMillis(retencaoMinutos);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, fila)), r -> {
+                    Thread t = new Thread(r, "importacao-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Enfileira a importação do arquivo (que passa a pertencer ao job e é apagado
+     * ao final).
+     *
+     * @throws RejectedExecutionException se a fila de importações estiver cheia
+     */
+    public ImportacaoJob submeter(File arquivo, String nomeArquivo, String editalDescricao, Modo modo) {
+        removerJobsAntigos();
+        ImportacaoJob job = new ImportacaoJob(UUID.randomUUID().toString(), nomeArquivo, editalDescricao, modo);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> executar(job, arquivo));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            arquivo.delete();
+            throw e;
+        }
+        logger.info("Importação {} enfileirada: arquivo={} edital={} modo={}", job.getId(), nomeArquivo,
+                editalDescricao, modo);
+        return job;
+    }
+
+    public ImportacaoJob buscar(String id) {
+        return id != null ? jobs.get(id) : null;
+    }
+
+    private void executar(ImportacaoJob job, File arquivo) {
+        job.status = Status.EM_ANDAMENTO;
+        try {
+            int importados = switch (job.modo) {
+                case CARGA_RAPIDA -> filtro.importarXlsxCargaRapida(arquivo, job.editalDescricao, job.progresso);
+                case INCREMENTAL -> filtro.importarXlsxIncremental(arquivo, job.editalDescricao, job.progresso);
+                case ATUALIZACAO -> filtro.importarXlsxAtualizacao(arquivo, job.editalDescricao, job.progresso);
+                default -> filtro.importarXlsx(arquivo, job.editalDescricao, job.progresso);
+            };
+            job.importados = importados;
+            job.status = Status.CONCLUIDO;
+            logger.info("Importação {} concluída: {} candidatos", job.getId(), importados);
+        } catch (Throwable e) {
+            // inclusive Error: senão o job ficaria EM_ANDAMENTO para sempre
+            job.mensagem = e.getMessage() != null ? e.getMessage() : e.toString();
+            job.status = Status.ERRO;
+            logger.error("Erro na importação {}", job.getId(), e);
+            if (e instanceof Error erro) {
+                throw erro;
+            }
+        } finally {
+            job.progresso.finalizar();
+            job.fim = System.currentTimeMillis();
+            if (!arquivo.delete()) {
+                arquivo.deleteOnExit();
+            }
+        }
+    }
+
+    private void removerJobsAntigos() {
+        long limite = System.currentTimeMillis() - retencaoMillis;
+        for (Iterator<ImportacaoJob> it = jobs.values().iterator(); it.hasNext();) {
+            ImportacaoJob job = it.next();
+            if (job.fim > 0 && job.fim < limite) {
+                it.remove();
+            }
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public static class ImportacaoJob {
+
+        private final String id;
+        private final String nomeArquivo;
+        private final String editalDescricao;
+        private final Modo modo;
+        private final long criadoEm = System.currentTimeMillis();
+        private final ProgressoImportacao progresso = new ProgressoImportacao();
+        private volatile Status status = Status.NA_FILA;
+        private volatile int importados;
+        private volatile String mensagem;
+        private volatile long fim;
+
+        ImportacaoJob(String id, String nomeArquivo, String editalDescricao, Modo modo) {
+            this.id = id;
+            this.nomeArquivo = nomeArquivo;
+            this.editalDescricao = editalDescricao;
+            this.modo = modo;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public ProgressoImportacao getProgresso() {
+            return progresso;
+        }
+
+        public boolean isFinalizado() {
+            return status == Status.CONCLUIDO || status == Status.ERRO;
+        }
+
+        /** Estado do job para a resposta JSON do endpoint de acompanhamento. */
+        public Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("jobId", id);
+            m.put("status", status.name());
+            m.put("finalizado", isFinalizado());
+            m.put("arquivo", nomeArquivo);
+            m.put("edital", editalDescricao);
+            m.put("modo", modo.name());
+            m.put("criadoEm", Instant.ofEpochMilli(criadoEm).toString());
+            m.put("linhasLidas", progresso.getLidas());
+            m.put("linhasGravadas", progresso.getGravadas());
+            m.put("linhasComFalha", progresso.getFalhas());
+            if (modo == Modo.ATUALIZACAO) {
+                m.put("linhasAtualizadas", progresso.getAtualizadas());
+                m.put("linhasInalteradas", progresso.getInalteradas());
+            }
+            if (modo == Modo.INCREMENTAL) {
+                m.put("linhasIgnoradas", progresso.getIgnoradas());
+            }
+            m.put("totalEstimado", progresso.getTotalEstimado());
+            m.put("linhasPorSegundo", Math.round(progresso.getLinhasPorSegundo() * 10) / 10.0);
+            m.put("segundosRestantes", isFinalizado() ? 0 : progresso.getSegundosRestantes());
+            if (status == Status.CONCLUIDO) {
+                m.put("importados", importados);
+            }
+            if (mensagem != null) {
+                m.put("mensagem", mensagem);
+            }
+            if (fim > 0) {
+                m.put("duracaoMs", fim - progresso.getInicio());
+            }
+            m.put("relatorio", progresso.getRelatorio().toMap());
+            return m;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.energif.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.energif.model.Genero;
+import com.example.energif.model.SituacaoCandidato;
+import com.example.energif.model.TipoVaga;
+
+/**
+ * Regras de alocação de vagas sem entidades nem banco.
+ *
+ * Os candidatos entram como um {@link Instantaneo}: vetores paralelos de
+ * id, gênero, situação e tipo de vaga, já em ordem de inscrição e agrupados
+ * por campus/turno (cada grupo é um intervalo de posições). A alocação de um
+ * intervalo só lê o instantâneo e devolve uma {@link Diferenca} com os
+ * candidatos cuja situação ou tipo de vaga mudou, mais a ocupação de cada
+ * tipo; não cria objetos por candidato. Intervalos distintos podem ser
+ * alocados ao mesmo tempo.
+ */
+final class MotorAlocacao {
+
+    /** Código de "sem tipo de vaga" / "sem situação" nos vetores. */
+    static final byte SEM_TIPO = -1;
+    static final byte SEM_SITUACAO = -1;
+
+    private static final byte CLASSIFICADO = (byte) SituacaoCandidato.CLASSIFICADO.ordinal();
+    private static final byte HABILITADO = (byte) SituacaoCandidato.HABILITADO.ordinal();
+    private static final byte PENDENTE = (byte) SituacaoCandidato.PENDENTE.ordinal();
+
+    private static final byte CLASSIFICADO_MASCULINO = (byte) TipoVaga.CLASSIFICADO_MASCULINO.ordinal();
+    private static final byte CLASSIFICADO_FEMININO = (byte) TipoVaga.CLASSIFICADO_FEMININO.ordinal();
+    private static final byte HABILITADO_MASCULINO = (byte) TipoVaga.HABILITADO_MASCULINO.ordinal();
+    private static final byte HABILITADO_FEMININO = (byte) TipoVaga.HABILITADO_FEMININO.ordinal();
+    private static final byte RESERVADO = (byte) TipoVaga.RESERVADO.ordinal();
+
+    private static final SituacaoCandidato[] SITUACOES = SituacaoCandidato.values();
+    private static final TipoVaga[] TIPOS = TipoVaga.values();
+
+    private MotorAlocacao() {
+    }
+
+    /** Vagas de um campus/turno por tipo. */
+    record Capacidade(int classificadosMasculino, int classificadosFeminino, int habilitadosMasculino,
+            int habilitadosFeminino, int reservadas) {
+    }
+
+    /**
+     * Vagas ocupadas por tipo depois de uma alocação; reservadasFeminino diz
+     * quantas das reservadas ficaram com mulheres.
+     */
+    record Ocupacao(int classificadosMasculino, int classificadosFeminino, int habilitadosMasculino,
+            int habilitadosFeminino, int reservadas, int reservadasFeminino) {
+
+        static final Ocupacao VAZIA = new Ocupacao(0, 0, 0, 0, 0, 0);
+
+        int feminino() {
+            return classificadosFeminino + habilitadosFeminino + reservadasFeminino;
+        }
+
+        int masculino() {
+            return classificadosMasculino + habilitadosMasculino + reservadas - reservadasFeminino;
+        }
+    }
+
+    /** Resultado da alocação de um intervalo. */
+    record Resultado(Ocupacao ocupacao, Diferenca diferenca) {
+    }
+
+    /**
+     * Candidatos a alocar, em vetores paralelos. Montado linha a linha por
+     * {@link #adicionar}; a posição é a ordem de inscrição dentro do grupo.
+     */
+    static final class Instantaneo {
+        private long[] ids;
+        private boolean[] femininos;
+        private byte[] situacoes;
+        private byte[] tipos;
+        private int tamanho;
+
+        Instantaneo(int capacidadeInicial) {
+            int n = Math.max(16, capacidadeInicial);
+            ids = new long[n];
+            femininos = new boolean[n];
+            situacoes = new byte[n];
+            tipos = new byte[n];
+        }
+
+        /** Acrescenta um candidato e devolve a sua posição. */
+        int adicionar(long id, Character genero, SituacaoCandidato situacao, TipoVaga tipo) {
+            if (tamanho == ids.length) {
+                int n = tamanho + (tamanho >> 1);
+                ids = Arrays.copyOf(ids, n);
+                femininos = Arrays.copyOf(femininos, n);
+                situacoes = Arrays.copyOf(situacoes, n);
+                tipos = Arrays.copyOf(tipos, n);
+            }
+            ids[tamanho] = id;
+            femininos[tamanho] = Genero.FEMININO.getCodigo().equals(genero);
+            situacoes[tamanho] = situacao != null ? (byte) situacao.ordinal() : SEM_SITUACAO;
+            tipos[tamanho] = tipo != null ? (byte) tipo.ordinal() : SEM_TIPO;
+            return tamanho++;
+        }
+
+        int tamanho() {
+            return tamanho;
+        }
+
+        long id(int posicao) {
+            return ids[posicao];
+        }
+
+        SituacaoCandidato situacao(int posicao) {
+            return situacoes[posicao] != SEM_SITUACAO ? SITUACOES[situacoes[posicao]] : null;
+        }
+
+        TipoVaga tipo(int posicao) {
+            return tipos[posicao] != SEM_TIPO ? TIPOS[tipos[posicao]] : null;
+        }
+    }
+
+    /**
+     * Candidatos que mudaram: posição no instantâneo (onde estão os valores
+     * anteriores), id, nova situação e novo tipo de vaga (códigos dos enums),
+     * em vetores paralelos.
+     */
+    static final class Diferenca {
+        private int[] posicoes;
+        private long[] ids;
+        private byte[] situacoes;
+        private byte[] tipos;
+        private int tamanho;
+
+        private Diferenca(int capacidadeInicial) {
+            int n = Math.max(4, capacidadeInicial);
+            posicoes = new int[n];
+            ids = new long[n];
+            situacoes = new byte[n];
+            tipos = new byte[n];
+        }
+
+        private void adicionar(int posicao, long id, byte situacao, byte tipo) {
+            if (tamanho == ids.length) {
+                int n = tamanho * 2;
+                posicoes = Arrays.copyOf(posicoes, n);
+                ids = Arrays.copyOf(ids, n);
+                situacoes = Arrays.copyOf(situacoes, n);
+                tipos = Arrays.copyOf(tipos, n);
+            }
+            posicoes[tamanho] = posicao;
+            ids[tamanho] = id;
+            situacoes[tamanho] = situacao;
+            tipos[tamanho] = tipo;
+            tamanho++;
+        }
+
+        /** Junta as diferenças de vários intervalos em uma só. */
+        static Diferenca juntar(List<Diferenca> partes) {
+            int total = 0;
+            for (Diferenca d : partes) {
+                total += d.tamanho;
+            }
+            Diferenca todas = new Diferenca(total);
+            for (Diferenca d : partes) {
+                System.arraycopy(d.posicoes, 0, todas.posicoes, todas.tamanho, d.tamanho);
+                System.arraycopy(d.ids, 0, todas.ids, todas.tamanho, d.tamanho);
+                System.arraycopy(d.situacoes, 0, todas.situacoes, todas.tamanho, d.tamanho);
+                System.arraycopy(d.tipos, 0, todas.tipos, todas.tamanho, d.tamanho);
+                todas.tamanho += d.tamanho;
+            }
+            return todas;
+        }
+
+        int tamanho() {
+            return tamanho;
+        }
+
+        int posicao(int i) {
+            return posicoes[i];
+        }
+
+        long id(int i) {
+            return ids[i];
+        }
+
+        SituacaoCandidato situacao(int i) {
+            return SITUACOES[situacoes[i]];
+        }
+
+        TipoVaga tipo(int i) {
+            return tipos[i] != SEM_TIPO ? TIPOS[tipos[i]] : null;
+        }
+    }
+
+    /**
+     * Aloca as vagas do intervalo [inicio, fim) do instantâneo em ordem de
+     * inscrição. Classificados têm prioridade: sem vaga de classificado tentam
+     * a de habilitado e depois a reservada (passando a habilitados), e sem
+     * nenhuma voltam a pendentes. Habilitados tentam a vaga de habilitado e
+     * depois a reservada. Quem disputa e fica sem vaga perde o tipo que
+     * tinha; as demais situações não entram na disputa.
+     */
+    static Resultado alocar(Instantaneo candidatos, int inicio, int fim, Capacidade vagas) {
+        int contadorClassificadosMasc = 0;
+        int contadorClassificadosFem = 0;
+        int contadorHabilitadosMasc = 0;
+        int contadorHabilitadosFem = 0;
+        int contadorReservados = 0;
+        int contadorReservadosFem = 0;
+        Diferenca diferenca = new Diferenca((fim - inicio) / 4);
+
+        for (int i = inicio; i < fim; i++) {
+            byte situacao = candidatos.situacoes[i];
+            boolean feminino = candidatos.femininos[i];
+            byte tipo = SEM_TIPO;
+
+            // Classificados têm prioridade
+            if (situacao == CLASSIFICADO) {
+                if (feminino) {
+                    if (contadorClassificadosFem < vagas.classificadosFeminino()) {
+                        tipo = CLASSIFICADO_FEMININO;
+                        contadorClassificadosFem++;
+                    }
+                } else if (contadorClassificadosMasc < vagas.classificadosMasculino()) {
+                    tipo = CLASSIFICADO_MASCULINO;
+                    contadorClassificadosMasc++;
+                }
+
+                // Se não conseguiu vaga classificado, tenta habilitado
+                if (tipo == SEM_TIPO) {
+                    if (feminino) {
+                        if (contadorHabilitadosFem < vagas.habilitadosFeminino()) {
+                            tipo = HABILITADO_FEMININO;
+                            contadorHabilitadosFem++;
+                            situacao = HABILITADO;
+                        }
+                    } else if (contadorHabilitadosMasc < vagas.habilitadosMasculino()) {
+                        tipo = HABILITADO_MASCULINO;
+                        contadorHabilitadosMasc++;
+                        situacao = HABILITADO;
+                    }
+                }
+
+                // Se ainda não teve vaga, fica em reservado
+                if (tipo == SEM_TIPO) {
+                    if (contadorReservados < vagas.reservadas()) {
+                        tipo = RESERVADO;
+                        contadorReservados++;
+                        contadorReservadosFem += feminino ? 1 : 0;
+                        situacao = HABILITADO;
+                    } else {
+                        situacao = PENDENTE;
+                    }
+                }
+            } else if (situacao == HABILITADO) {
+                // Habilitados ocupam vagas de habilitados se disponível
+                if (feminino) {
+                    if (contadorHabilitadosFem < vagas.habilitadosFeminino()) {
+                        tipo = HABILITADO_FEMININO;
+                        contadorHabilitadosFem++;
+                    }
+                } else if (contadorHabilitadosMasc < vagas.habilitadosMasculino()) {
+                    tipo = HABILITADO_MASCULINO;
+                    contadorHabilitadosMasc++;
+                }
+
+                // Se não tem vaga de habilitado, tenta reservado
+                if (tipo == SEM_TIPO && contadorReservados < vagas.reservadas()) {
+                    tipo = RESERVADO;
+                    contadorReservados++;
+                    contadorReservadosFem += feminino ? 1 : 0;
+                }
+            } else {
+                // fora da disputa: mantém o que tinha
+                continue;
+            }
+
+            if (situacao != candidatos.situacoes[i] || tipo != candidatos.tipos[i]) {
+                diferenca.adicionar(i, candidatos.ids[i], situacao, tipo);
+            }
+        }
+
+        Ocupacao ocupacao = new Ocupacao(contadorClassificadosMasc, contadorClassificadosFem,
+                contadorHabilitadosMasc, contadorHabilitadosFem, contadorReservados, contadorReservadosFem);
+        return new Resultado(ocupacao, diferenca);
+    }
+}
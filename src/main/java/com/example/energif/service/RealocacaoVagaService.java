@@ -0,0 +1,438 @@
+package com.example.energif.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.energif.model.Genero;
+import com.example.energif.model.SituacaoCandidato;
+import com.example.energif.model.TipoVaga;
+import com.example.energif.repository.CampusEditalTurnoRepository;
+
+/**
+ * Realocação incremental quando um único candidato entra na disputa por vaga
+ * (marcado como classificado ou habilitado) ou sai dela (eliminado ou de volta
+ * a pendente), sem refazer a alocação do campus/turno inteiro.
+ *
+ * Segue as regras de {@link MotorAlocacao} sobre o estado atual: a ordem de
+ * inscrição decide, então quem entra inscrito antes do último titular de um
+ * tipo de vaga lotado toma a vaga dele, e o titular desce um nível
+ * (classificado → habilitado → reservada → sem vaga); quando uma vaga se abre,
+ * o primeiro habilitado da fila sobe. Só os candidatos da fronteira são lidos
+ * e gravados, cada um por uma busca nos índices de V9.
+ *
+ * Os contadores só mudam pelos UPDATEs condicionais de
+ * {@link CampusEditalTurnoRepository#reservarVaga}/{@code liberarVaga}, nunca
+ * gravando um valor lido antes, então marcações simultâneas não perdem
+ * incrementos nem passam do total. No caso comum (vaga livre) isso basta; a
+ * linha do campus/turno só é travada quando há candidatos a deslocar ou a
+ * promover, para que duas marcações não escolham o mesmo candidato.
+ *
+ * Os contadores de ocupação do turno são a referência de vagas livres: se
+ * estiverem desalinhados dos tipos gravados nos candidatos (dados anteriores a
+ * esta realocação), "Alocar vagas do edital" os recalcula.
+ */
+@Service
+public class RealocacaoVagaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RealocacaoVagaService.class);
+
+    private static final String COLUNAS = "id, edital_id, campus_id, coalesce(turno, '"
+            + AlocacaoVagaService.TURNO_PADRAO + "'), genero, situacao, tipo_vaga, data_inscricao, hora_inscricao ";
+
+    private static final String CANDIDATO = "SELECT " + COLUNAS + "FROM candidato WHERE id = ?";
+
+    private static final String FILTRO_TURNO = "WHERE edital_id = ? AND campus_id = ? AND coalesce(turno, '"
+            + AlocacaoVagaService.TURNO_PADRAO + "') = ? ";
+
+    private static final String ULTIMO_TITULAR = "SELECT " + COLUNAS + "FROM candidato " + FILTRO_TURNO
+            + "AND tipo_vaga = ? AND situacao IN ('CLASSIFICADO', 'HABILITADO') ORDER BY data_inscricao DESC, hora_inscricao DESC, id DESC LIMIT 1";
+
+    private static final String PRIMEIRO_ESPERA = "SELECT " + COLUNAS + "FROM candidato " + FILTRO_TURNO
+            + "AND ((genero = 'F') IS TRUE) = ? AND situacao = 'HABILITADO' "
+            + "AND (tipo_vaga IS NULL OR tipo_vaga = 'RESERVADO') "
+            + "ORDER BY data_inscricao, hora_inscricao, id LIMIT 1";
+
+    private static final String PRIMEIRO_SEM_VAGA = "SELECT " + COLUNAS + "FROM candidato " + FILTRO_TURNO
+            + "AND ((genero = 'F') IS TRUE) = ? AND situacao = 'HABILITADO' AND tipo_vaga IS NULL "
+            + "ORDER BY data_inscricao, hora_inscricao, id LIMIT 1";
+
+    private static final String TURNO = "SELECT t.id, t.numero_vagas_classificado_masculino, "
+            + "t.numero_vagas_classificado_feminino, t.numero_vagas_habilitado_masculino, "
+            + "t.numero_vagas_habilitado_feminino, t.numero_vagas_cadastro_reserva, "
+            + "t.vagas_classificado_masculino_ocupadas, t.vagas_classificado_feminino_ocupadas, "
+            + "t.vagas_habilitado_masculino_ocupadas, t.vagas_habilitado_feminino_ocupadas, "
+            + "t.vagas_reservado_ocupadas FROM campus_edital_turno t "
+            + "JOIN campus_edital ce ON ce.id = t.campus_edital_id "
+            + "WHERE ce.edital_id = ? AND ce.campus_id = ? AND t.turno = ?";
+
+    // MOVER e MARCAR só gravam se o candidato não mudou desde a leitura
+    private static final String MOVER = "UPDATE candidato SET situacao = ?, tipo_vaga = ? WHERE id = ? "
+            + "AND situacao IS NOT DISTINCT FROM ? AND tipo_vaga IS NOT DISTINCT FROM ?";
+
+    private static final String MARCAR = "UPDATE candidato SET situacao = ?, tipo_vaga = ?, "
+            + "motivo_nao_classificacao = ? WHERE id = ? "
+            + "AND situacao IS NOT DISTINCT FROM ? AND tipo_vaga IS NOT DISTINCT FROM ?";
+
+    /** Outro candidato que mudou de vaga por causa da marcação. */
+    public record Movimento(Long candidatoId, SituacaoCandidato situacao, TipoVaga de, TipoVaga para) {
+    }
+
+    /**
+     * Resultado de uma marcação: se o candidato ficou com vaga (e qual), as
+     * vagas do nível em questão que seguem livres (os dois gêneros) e os demais
+     * candidatos que subiram ou desceram por causa dela. {@code semTurno} diz
+     * que não há campus/turno cadastrado para o candidato, em vez de vaga lotada.
+     */
+    public record Realocacao(boolean colocado, boolean semTurno, TipoVaga tipoVaga, int vagasDisponiveis,
+            List<Movimento> movimentos) {
+
+        static final Realocacao SEM_TURNO = new Realocacao(false, true, null, 0, List.of());
+
+        Realocacao(boolean colocado, TipoVaga tipoVaga, int vagasDisponiveis, List<Movimento> movimentos) {
+            this(colocado, false, tipoVaga, vagasDisponiveis, movimentos);
+        }
+    }
+
+    /** Níveis de vaga, do mais ao menos prioritário. */
+    private enum Nivel {
+        CLASSIFICADO, HABILITADO, RESERVADO;
+
+        TipoVaga tipo(boolean feminino) {
+            return switch (this) {
+            case CLASSIFICADO -> feminino ? TipoVaga.CLASSIFICADO_FEMININO : TipoVaga.CLASSIFICADO_MASCULINO;
+            case HABILITADO -> feminino ? TipoVaga.HABILITADO_FEMININO : TipoVaga.HABILITADO_MASCULINO;
+            case RESERVADO -> TipoVaga.RESERVADO;
+            };
+        }
+
+        static Nivel de(TipoVaga tipo) {
+            return switch (tipo) {
+            case CLASSIFICADO_MASCULINO, CLASSIFICADO_FEMININO -> CLASSIFICADO;
+            case HABILITADO_MASCULINO, HABILITADO_FEMININO -> HABILITADO;
+            case RESERVADO -> RESERVADO;
+            default -> null;
+            };
+        }
+    }
+
+    private record Inscrito(long id, Long editalId, Long campusId, String turno, boolean feminino,
+            SituacaoCandidato situacao, TipoVaga tipo, LocalDate dataInscricao, LocalTime horaInscricao) {
+    }
+
+    // mesma ordem da alocação: inscrição (sem data/hora por último) e id
+    private static final Comparator<Inscrito> ORDEM_INSCRICAO = Comparator
+            .comparing(Inscrito::dataInscricao, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Inscrito::horaInscricao, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(Inscrito::id);
+
+    /** Vagas e ocupação de um campus/turno durante uma marcação (índice = ordinal do TipoVaga). */
+    private final class Turno {
+        final long id;
+        final Inscrito referencia;
+        final int[] vagas = new int[5];
+        final int[] ocupadas = new int[5];
+        final List<Movimento> movimentos = new ArrayList<>();
+
+        Turno(ResultSet rs, Inscrito referencia) throws SQLException {
+            this.id = rs.getLong(1);
+            this.referencia = referencia;
+            for (int i = 0; i < 5; i++) {
+                vagas[i] = rs.getInt(2 + i);
+                ocupadas[i] = rs.getInt(7 + i);
+            }
+        }
+
+        boolean livre(TipoVaga tipo) {
+            return ocupadas[tipo.ordinal()] < vagas[tipo.ordinal()];
+        }
+
+        int disponiveis(Nivel nivel) {
+            int livres = 0;
+            for (TipoVaga tipo : new TipoVaga[] { nivel.tipo(false), nivel.tipo(true) }) {
+                livres += Math.max(0, vagas[tipo.ordinal()] - ocupadas[tipo.ordinal()]);
+                if (nivel == Nivel.RESERVADO) {
+                    break;
+                }
+            }
+            return livres;
+        }
+
+        void ocupar(TipoVaga tipo) {
+            if (!campusEditalTurnoRepository.reservarVaga(id, tipo)) {
+                throw new IllegalStateException("Vagas " + tipo + " do turno " + id + " já estão lotadas");
+            }
+            ocupadas[tipo.ordinal()]++;
+        }
+
+        void liberar(TipoVaga tipo) {
+            campusEditalTurnoRepository.liberarVaga(id, tipo);
+            ocupadas[tipo.ordinal()] = Math.max(0, ocupadas[tipo.ordinal()] - 1);
+        }
+
+        Inscrito ultimoTitular(TipoVaga tipo) {
+            return umInscrito(ULTIMO_TITULAR, referencia.editalId(), referencia.campusId(), referencia.turno(),
+                    tipo.name());
+        }
+
+        Inscrito primeiroEspera(boolean feminino) {
+            return umInscrito(PRIMEIRO_ESPERA, referencia.editalId(), referencia.campusId(), referencia.turno(),
+                    feminino);
+        }
+
+        /** Primeiro habilitado sem vaga nenhuma, de qualquer gênero. */
+        Inscrito primeiroSemVaga() {
+            Inscrito f = umInscrito(PRIMEIRO_SEM_VAGA, referencia.editalId(), referencia.campusId(),
+                    referencia.turno(), true);
+            Inscrito m = umInscrito(PRIMEIRO_SEM_VAGA, referencia.editalId(), referencia.campusId(),
+                    referencia.turno(), false);
+            if (f == null || m == null) {
+                return f != null ? f : m;
+            }
+            return ORDEM_INSCRICAO.compare(f, m) <= 0 ? f : m;
+        }
+
+        void mover(Inscrito c, SituacaoCandidato situacao, TipoVaga tipo) {
+            int linhas = jdbcTemplate.update(MOVER, situacao.name(), tipo != null ? tipo.name() : null, c.id(),
+                    c.situacao() != null ? c.situacao().name() : null, c.tipo() != null ? c.tipo().name() : null);
+            if (linhas == 0) {
+                // ex.: eliminado por outra marcação depois de lido da fila
+                throw new IllegalStateException("Candidato " + c.id() + " alterado por outra operação; tente novamente");
+            }
+            movimentos.add(new Movimento(c.id(), situacao, c.tipo(), tipo));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CampusEditalTurnoRepository campusEditalTurnoRepository;
+
+    public RealocacaoVagaService(JdbcTemplate jdbcTemplate, CampusEditalTurnoRepository campusEditalTurnoRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.campusEditalTurnoRepository = campusEditalTurnoRepository;
+    }
+
+    /**
+     * Põe o candidato na disputa como classificado ou habilitado. Ele fica com
+     * a vaga do seu nível e gênero se houver uma livre ou se foi inscrito antes
+     * do último titular dela (que desce um nível); senão nada é gravado e o
+     * resultado vem com {@code colocado = false} ({@code semTurno} se o turno
+     * do candidato não está cadastrado no campus/edital).
+     */
+    @Transactional
+    public Realocacao entrar(Long candidatoId, SituacaoCandidato situacao) {
+        Nivel nivel = switch (situacao) {
+        case CLASSIFICADO -> Nivel.CLASSIFICADO;
+        case HABILITADO -> Nivel.HABILITADO;
+        default -> throw new IllegalArgumentException("Situação sem vaga: " + situacao);
+        };
+        return entrar(candidatoId, situacao, nivel);
+    }
+
+    /**
+     * Marca o candidato como cadastro de reserva: habilitado com vaga
+     * reservada (as vagas de cadastro de reserva do turno), pelas mesmas regras de {@link #entrar} (vaga livre, ou a do
+     * último reservado inscrito depois dele, que fica sem vaga).
+     */
+    @Transactional
+    public Realocacao reservar(Long candidatoId) {
+        return entrar(candidatoId, SituacaoCandidato.HABILITADO, Nivel.RESERVADO);
+    }
+
+    private Realocacao entrar(Long candidatoId, SituacaoCandidato situacao, Nivel nivel) {
+        Inscrito c = buscar(candidatoId);
+        TipoVaga tipo = nivel.tipo(c.feminino());
+        Turno turno = turno(c, false);
+        if (turno == null) {
+            return Realocacao.SEM_TURNO;
+        }
+        // caso comum: vaga livre e nenhuma vaga a devolver; o UPDATE
+        // condicional do contador garante a vaga sem travar o turno
+        if (!ocupaVaga(c) && campusEditalTurnoRepository.reservarVaga(turno.id, tipo)) {
+            turno.ocupadas[tipo.ordinal()]++;
+            marcar(c, situacao, tipo, null);
+            return new Realocacao(true, tipo, turno.disponiveis(nivel), List.of());
+        }
+
+        turno = turno(c, true);
+        if (turno == null) {
+            return Realocacao.SEM_TURNO;
+        }
+        c = buscar(candidatoId);
+        tipo = nivel.tipo(c.feminino());
+        if (ocupaVaga(c) && c.tipo() == tipo && c.situacao() == situacao) {
+            // já está nessa vaga
+            return new Realocacao(true, tipo, turno.disponiveis(nivel), List.of());
+        }
+        if (turno.livre(tipo)) {
+            turno.ocupar(tipo);
+        } else {
+            Inscrito titular = turno.ultimoTitular(tipo);
+            if (titular == null || ORDEM_INSCRICAO.compare(c, titular) >= 0) {
+                return new Realocacao(false, null, 0, List.of());
+            }
+            // a vaga passa para quem se inscreveu antes; a ocupação não muda
+            descer(turno, titular, nivel);
+        }
+        if (ocupaVaga(c)) {
+            // tinha outra vaga (ex.: reservada): ela se abre para a fila
+            turno.liberar(c.tipo());
+            marcar(c, situacao, tipo, null);
+            subir(turno, Nivel.de(c.tipo()), c.feminino());
+        } else {
+            marcar(c, situacao, tipo, null);
+        }
+        return concluir(turno, c, new Realocacao(true, tipo, turno.disponiveis(nivel), turno.movimentos));
+    }
+
+    /**
+     * Tira o candidato da disputa (eliminado, pendente...), gravando a nova
+     * situação e o motivo. A vaga que ele ocupava passa ao primeiro da fila.
+     */
+    @Transactional
+    public Realocacao sair(Long candidatoId, SituacaoCandidato situacao, String motivo) {
+        Inscrito c = buscar(candidatoId);
+        Turno turno = ocupaVaga(c) ? turno(c, true) : null;
+        if (turno != null) {
+            c = buscar(candidatoId);
+        }
+        marcar(c, situacao, null, motivo);
+        Nivel nivel = ocupaVaga(c) ? Nivel.de(c.tipo()) : null;
+        if (turno == null || nivel == null) {
+            // não tinha vaga: nada a devolver
+            return new Realocacao(false, null, 0, List.of());
+        }
+        turno.liberar(c.tipo());
+        subir(turno, nivel, c.feminino());
+        return concluir(turno, c, new Realocacao(false, null, turno.disponiveis(nivel), turno.movimentos));
+    }
+
+    /**
+     * O titular perdeu a vaga do nível dado: tenta os níveis abaixo, tomando a
+     * vaga do último titular de cada um se foi inscrito antes dele. Sem vaga, o
+     * habilitado fica na fila e o classificado volta a pendente, como na
+     * alocação completa.
+     */
+    private void descer(Turno turno, Inscrito titular, Nivel perdido) {
+        for (Nivel n : Nivel.values()) {
+            if (n.ordinal() <= perdido.ordinal()) {
+                continue;
+            }
+            TipoVaga tipo = n.tipo(titular.feminino());
+            if (turno.livre(tipo)) {
+                turno.ocupar(tipo);
+                turno.mover(titular, SituacaoCandidato.HABILITADO, tipo);
+                return;
+            }
+            Inscrito ultimo = turno.ultimoTitular(tipo);
+            if (ultimo != null && ORDEM_INSCRICAO.compare(titular, ultimo) < 0) {
+                turno.mover(titular, SituacaoCandidato.HABILITADO, tipo);
+                descer(turno, ultimo, n);
+                return;
+            }
+        }
+        turno.mover(titular, titular.situacao() == SituacaoCandidato.CLASSIFICADO ? SituacaoCandidato.PENDENTE
+                : SituacaoCandidato.HABILITADO, null);
+    }
+
+    /**
+     * Abriu-se uma vaga do nível dado. Vagas de classificado não têm fila (na
+     * alocação, classificado sem vaga deixa de ser classificado); as de
+     * habilitado vão para a primeira habilitada/o habilitado do mesmo gênero
+     * que está sem vaga ou na reservada, e a reservada para o primeiro
+     * habilitado sem vaga.
+     */
+    private void subir(Turno turno, Nivel nivel, boolean feminino) {
+        if (nivel == Nivel.HABILITADO) {
+            TipoVaga tipo = nivel.tipo(feminino);
+            Inscrito proximo = turno.livre(tipo) ? turno.primeiroEspera(feminino) : null;
+            if (proximo != null) {
+                turno.ocupar(tipo);
+                turno.mover(proximo, SituacaoCandidato.HABILITADO, tipo);
+                if (proximo.tipo() == TipoVaga.RESERVADO) {
+                    turno.liberar(TipoVaga.RESERVADO);
+                    subir(turno, Nivel.RESERVADO, proximo.feminino());
+                }
+            }
+        } else if (nivel == Nivel.RESERVADO && turno.livre(TipoVaga.RESERVADO)) {
+            Inscrito proximo = turno.primeiroSemVaga();
+            if (proximo != null) {
+                turno.ocupar(TipoVaga.RESERVADO);
+                turno.mover(proximo, SituacaoCandidato.HABILITADO, TipoVaga.RESERVADO);
+            }
+        }
+    }
+
+    /*
+     * Só classificados e habilitados contam nas vagas ocupadas; há candidatos
+     * antigos fora da disputa que ainda guardam um tipo de vaga.
+     */
+    private static boolean ocupaVaga(Inscrito c) {
+        return (c.situacao() == SituacaoCandidato.CLASSIFICADO || c.situacao() == SituacaoCandidato.HABILITADO)
+                && c.tipo() != null && Nivel.de(c.tipo()) != null;
+    }
+
+    private void marcar(Inscrito c, SituacaoCandidato situacao, TipoVaga tipo, String motivo) {
+        int linhas = jdbcTemplate.update(MARCAR, situacao.name(), tipo != null ? tipo.name() : null, motivo, c.id(),
+                c.situacao() != null ? c.situacao().name() : null, c.tipo() != null ? c.tipo().name() : null);
+        if (linhas == 0) {
+            throw new IllegalStateException("Candidato " + c.id() + " alterado por outra operação; tente novamente");
+        }
+    }
+
+    private Realocacao concluir(Turno turno, Inscrito c, Realocacao realocacao) {
+        if (!realocacao.movimentos().isEmpty()) {
+            logger.info("Realocação no turno {} a partir do candidato {}: {}", turno.id, c.id(),
+                    realocacao.movimentos());
+        }
+        return realocacao;
+    }
+
+    /*
+     * Com travar, trava o campus/turno antes de reler o candidato: quem desce
+     * ou sobe de vaga também é gravado com o turno travado (e a reserva de vaga
+     * trava a mesma linha antes do candidato), então a ordem é sempre turno e
+     * depois candidatos, sem deadlock entre duas marcações no mesmo turno.
+     */
+    private Turno turno(Inscrito c, boolean travar) {
+        if (c.editalId() == null || c.campusId() == null) {
+            return null;
+        }
+        List<Turno> turnos = jdbcTemplate.query(travar ? TURNO + " FOR UPDATE OF t" : TURNO,
+                (rs, i) -> new Turno(rs, c), c.editalId(), c.campusId(), c.turno());
+        return turnos.isEmpty() ? null : turnos.get(0);
+    }
+
+    private Inscrito buscar(Long candidatoId) {
+        Inscrito c = umInscrito(CANDIDATO, Objects.requireNonNull(candidatoId, "candidatoId"));
+        if (c == null) {
+            throw new IllegalArgumentException("Candidato não encontrado");
+        }
+        return c;
+    }
+
+    private Inscrito umInscrito(String sql, Object... parametros) {
+        List<Inscrito> inscritos = jdbcTemplate.query(sql, (rs, i) -> {
+            String genero = rs.getString(5);
+            String situacao = rs.getString(6);
+            String tipo = rs.getString(7);
+            return new Inscrito(rs.getLong(1), rs.getObject(2, Long.class),
+                    rs.getObject(3, Long.class), rs.getString(4),
+                    Genero.FEMININO.getCodigo().toString().equals(genero),
+                    situacao != null ? SituacaoCandidato.valueOf(situacao) : null,
+                    tipo != null ? TipoVaga.valueOf(tipo) : null,
+                    rs.getObject(8, LocalDate.class), rs.getObject(9, LocalTime.class));
+        }, parametros);
+        return inscritos.isEmpty() ? null : inscritos.get(0);
+    }
+}
@@ -7,9 +7,8 @@ import java.util.Map;
 
 import org.springframework.stereotype.Service;
 
-import com.example.energif.model.Campus;
-import com.example.energif.model.Candidato;
 import com.example.energif.model.SituacaoCandidato;
+import com.example.energif.repository.CandidatoResumo;
 import com.lowagie.text.Chunk;
 import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
@@ -26,8 +25,12 @@ public class RelatorioService {
     private static final Color CINZA_ESCURO = new Color(100, 100, 100);
     private static final java.util.Locale PT_BR = new java.util.Locale("pt", "BR");
 
-    public void gerarRelatorioPDF(Document doc, List<Campus> campusList, 
-                                   Map<Campus, List<Candidato>> grouped, String turno) throws DocumentException {
+    /**
+     * Resultado final: uma seção por campus (chave de {@code porCampus}, na
+     * ordem do mapa) e, dentro dela, uma tabela por turno.
+     */
+    public void gerarRelatorioPDF(Document doc, Map<String, List<CandidatoResumo>> porCampus, String turno)
+            throws DocumentException {
         
         Font titleFont = new Font(Font.HELVETICA, 16, Font.BOLD);
         Font headerFont = new Font(Font.HELVETICA, 12, Font.BOLD, Color.BLACK);
@@ -52,22 +55,22 @@ public class RelatorioService {
         DateTimeFormatter dateF = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         DateTimeFormatter timeF = DateTimeFormatter.ofPattern("HH:mm");
 
-        for (Campus campus : campusList) {
-            List<Candidato> candidatos = grouped.get(campus);
+        for (Map.Entry<String, List<CandidatoResumo>> campusEntry : porCampus.entrySet()) {
+            List<CandidatoResumo> candidatos = campusEntry.getValue();
             if (candidatos == null || candidatos.isEmpty()) {
                 continue;
             }
 
-            String campusName = campus != null ? campus.getNome() : "Sem Campus";
+            String campusName = campusEntry.getKey();
             
             // Agrupar por turno
-                Map<String, List<Candidato>> byTurno = candidatos.stream()
+                Map<String, List<CandidatoResumo>> byTurno = candidatos.stream()
                     .collect(java.util.stream.Collectors.groupingBy(
-                        c -> normalizeTurno(c.getTurno()),
+                        c -> normalizeTurno(c.turno()),
                         java.util.LinkedHashMap::new, 
                         java.util.stream.Collectors.toList()));
 
-            for (Map.Entry<String, List<Candidato>> turnoEntry : byTurno.entrySet()) {
+            for (Map.Entry<String, List<CandidatoResumo>> turnoEntry : byTurno.entrySet()) {
                 String turnoName = turnoEntry.getKey();
                 
                 // Campus e Turno em UMA LINHA, COM BORDA, EM NEGRITO
@@ -103,12 +106,12 @@ public class RelatorioService {
 
                 // Adicionar dados com texto centralizado
                 int rank = 0;
-                for (Candidato c : turnoEntry.getValue()) {
+                for (CandidatoResumo c : turnoEntry.getValue()) {
                     String dateTime = "-";
-                    if (c.getDataInscricao() != null) {
-                        dateTime = c.getDataInscricao().format(dateF);
-                        if (c.getHoraInscricao() != null)
-                            dateTime += " " + c.getHoraInscricao().format(timeF);
+                    if (c.dataInscricao() != null) {
+                        dateTime = c.dataInscricao().format(dateF);
+                        if (c.horaInscricao() != null)
+                            dateTime += " " + c.horaInscricao().format(timeF);
                     }
 
                     // Data/Hora centralizado
@@ -121,7 +124,7 @@ public class RelatorioService {
                     table.addCell(cellData);
 
                     // Nome centralizado
-                    String nomeUpper = c.getNome() != null ? c.getNome().toUpperCase(PT_BR) : "-";
+                    String nomeUpper = c.nome() != null ? c.nome().toUpperCase(PT_BR) : "-";
                     PdfPCell cellNome = new PdfPCell(new Phrase(nomeUpper, normalFont));
                     cellNome.setHorizontalAlignment(Element.ALIGN_CENTER);
                     cellNome.setVerticalAlignment(Element.ALIGN_MIDDLE);
@@ -132,7 +135,7 @@ public class RelatorioService {
 
                     // Classificação
                     PdfPCell cellClassif;
-                    if (c.getSituacao() == SituacaoCandidato.CLASSIFICADO || c.getSituacao() == SituacaoCandidato.HABILITADO) {
+                    if (c.situacao() == SituacaoCandidato.CLASSIFICADO || c.situacao() == SituacaoCandidato.HABILITADO) {
                         rank++;
                         cellClassif = new PdfPCell(new Phrase(rank + "°", normalFont));
                     } else {
@@ -147,9 +150,9 @@ public class RelatorioService {
                     table.addCell(cellClassif);
 
                     // Situação
-                    String situ = c.getSituacao().getDescricao();
-                    if (c.getMotivoNaoClassificacao() != null && !c.getMotivoNaoClassificacao().isBlank()) {
-                        situ += " - " + c.getMotivoNaoClassificacao();
+                    String situ = c.situacao().getDescricao();
+                    if (c.motivoNaoClassificacao() != null && !c.motivoNaoClassificacao().isBlank()) {
+                        situ += " - " + c.motivoNaoClassificacao();
                     }
                     PdfPCell cellSitu = new PdfPCell(new Phrase(situ, normalFont));
                     cellSitu.setHorizontalAlignment(Element.ALIGN_CENTER);
@@ -169,7 +172,7 @@ public class RelatorioService {
         }
     }
 
-    public void gerarRelatorioPreliminar(Document doc, List<Candidato> candidatos, String editalDescricao) throws DocumentException {
+    public void gerarRelatorioPreliminar(Document doc, List<CandidatoResumo> candidatos, String editalDescricao) throws DocumentException {
         Font titleFont = new Font(Font.HELVETICA, 14, Font.BOLD);
         Font headerFont = new Font(Font.HELVETICA, 11, Font.BOLD, Color.BLACK);
         Font normalFont = new Font(Font.HELVETICA, 9);
@@ -198,9 +201,11 @@ public class RelatorioService {
         java.text.Collator collator = java.text.Collator.getInstance(PT_BR);
         collator.setStrength(java.text.Collator.PRIMARY); // Ignora acentos na comparação
         
+        // cópia: a lista recebida pode ser imutável
+        candidatos = new java.util.ArrayList<>(candidatos);
         candidatos.sort((c1, c2) -> {
-            String n1 = c1.getNome() != null ? c1.getNome() : "";
-            String n2 = c2.getNome() != null ? c2.getNome() : "";
+            String n1 = c1.nome() != null ? c1.nome() : "";
+            String n2 = c2.nome() != null ? c2.nome() : "";
             return collator.compare(n1.toUpperCase(PT_BR), n2.toUpperCase(PT_BR));
         });
 
@@ -222,13 +227,13 @@ public class RelatorioService {
         }
 
         // Adicionar dados dos candidatos
-        for (Candidato c : candidatos) {
+        for (CandidatoResumo c : candidatos) {
             // Data e Hora da Inscrição
             String dateTime = "-";
-            if (c.getDataInscricao() != null && c.getHoraInscricao() != null) {
-                dateTime = java.time.LocalDateTime.of(c.getDataInscricao(), c.getHoraInscricao()).format(dateTimeF);
-            } else if (c.getDataInscricao() != null) {
-                dateTime = c.getDataInscricao().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+            if (c.dataInscricao() != null && c.horaInscricao() != null) {
+                dateTime = java.time.LocalDateTime.of(c.dataInscricao(), c.horaInscricao()).format(dateTimeF);
+            } else if (c.dataInscricao() != null) {
+                dateTime = c.dataInscricao().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"));
             }
 
             PdfPCell cellData = new PdfPCell(new Phrase(dateTime, normalFont));
@@ -240,7 +245,7 @@ public class RelatorioService {
             table.addCell(cellData);
 
             // Nome Completo
-            String nomeUpper = c.getNome() != null ? c.getNome().toUpperCase(PT_BR) : "-";
+            String nomeUpper = c.nome() != null ? c.nome().toUpperCase(PT_BR) : "-";
             PdfPCell cellNome = new PdfPCell(new Phrase(nomeUpper, normalFont));
             cellNome.setHorizontalAlignment(Element.ALIGN_LEFT);
             cellNome.setVerticalAlignment(Element.ALIGN_MIDDLE);
@@ -250,8 +255,8 @@ public class RelatorioService {
             table.addCell(cellNome);
 
             // Campus e Turno
-            String campusName = c.getCampus() != null ? c.getCampus().getNome() : "Sem Campus";
-            String turnoName = normalizeTurno(c.getTurno());
+            String campusName = c.campusNome() != null ? c.campusNome() : "Sem Campus";
+            String turnoName = normalizeTurno(c.turno());
             String campusTurnoStr = campusName + " - " + turnoName;
             PdfPCell cellCampusTurno = new PdfPCell(new Phrase(campusTurnoStr, normalFont));
             cellCampusTurno.setHorizontalAlignment(Element.ALIGN_CENTER);
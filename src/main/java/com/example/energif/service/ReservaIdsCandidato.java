@@ -0,0 +1,57 @@
+package com.example.energif.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.energif.model.Candidato;
+
+/**
+ * Reserva de ids de candidato para INSERTs feitos fora do Hibernate.
+ *
+ * Cada valor obtido de candidato_seq equivale ao bloco (hi - 49 .. hi], o mesmo
+ * intervalo que o otimizador pooled do Hibernate usaria para esse valor, então
+ * os ids reservados aqui nunca colidem com os gerados pelo JPA.
+ */
+final class ReservaIdsCandidato {
+
+    /** Deve ser igual ao allocationSize de candidato_seq em {@link Candidato}. */
+    static final int BLOCO_IDS = 50;
+
+    private ReservaIdsCandidato() {
+    }
+
+    /**
+     * Reserva em candidato_seq blocos suficientes para {@code total} ids.
+     * Valores menores que o bloco são descartados: o Hibernate trata o valor
+     * inicial da sequence de forma especial e o bloco teria ids não positivos.
+     */
+    static List<Long> reservarBlocos(JdbcTemplate jdbcTemplate, int total) {
+        int necessarios = (total + BLOCO_IDS - 1) / BLOCO_IDS;
+        List<Long> blocos = new ArrayList<>(necessarios);
+        while (blocos.size() < necessarios) {
+            List<Long> his = jdbcTemplate.queryForList(
+                    "SELECT nextval('candidato_seq') FROM generate_series(1, ?)", Long.class,
+                    necessarios - blocos.size());
+            for (Long hi : his) {
+                if (hi != null && hi >= BLOCO_IDS) {
+                    blocos.add(hi);
+                }
+            }
+        }
+        return blocos;
+    }
+
+    /** Os {@code total} ids dos blocos reservados, em ordem. */
+    static long[] reservar(JdbcTemplate jdbcTemplate, int total) {
+        long[] ids = new long[total];
+        int i = 0;
+        for (long hi : reservarBlocos(jdbcTemplate, total)) {
+            for (long id = hi - BLOCO_IDS + 1; id <= hi && i < total; id++) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+}
@@ -1,39 +1,36 @@
 package com.example.energif.util;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.text.Normalizer;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.ss.usermodel.DataFormatter;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.example.energif.model.Campus;
 import com.example.energif.model.CampusEdital;
 import com.example.energif.model.CampusEditalTurno;
 import com.example.energif.model.Candidato;
-import com.example.energif.model.SituacaoCandidato;
 import com.example.energif.repository.CampusEditalRepository;
 import com.example.energif.repository.CampusEditalTurnoRepository;
 import com.example.energif.repository.CampusRepository;
 import com.example.energif.repository.CandidatoRepository;
+import com.example.energif.service.AtualizacaoCandidatoService;
+import com.example.energif.service.CandidatoLoteService;
+import com.example.energif.service.CargaRapidaCandidatoService;
+import com.example.energif.service.DadosReferenciaService;
+import com.example.energif.service.EstatisticaCandidatoService;
 
 /**
  * Utility that reads an .xlsx file and imports rows into the Candidato table.
@@ -44,32 +41,288 @@ import com.example.energif.repository.CandidatoRepository;
  * - Gênero
  * - Data de Nascimento
  * - CPF
+ *
+ * A planilha é lida em streaming ({@link LeitorXlsxStreaming}), linha a linha,
+ * para que uploads grandes não precisem caber inteiros no heap.
  */
 @Component
 public class Filtro {
 
     private static final Logger log = LoggerFactory.getLogger(Filtro.class);
 
+    // linhas por tarefa de mapeamento: amortiza o custo de enfileirar sem atrasar a gravação
+    private static final int TAMANHO_BLOCO_MAPEAMENTO = 64;
+
     private final CandidatoRepository candidatoRepository;
     private final CampusRepository campusRepository;
     private final com.example.energif.repository.EditalRepository editalRepository;
     private final CampusEditalRepository campusEditalRepository;
     private final CampusEditalTurnoRepository turnoRepository;
+    private final CandidatoLoteService candidatoLoteService;
+    private final CargaRapidaCandidatoService cargaRapidaService;
+    private final AtualizacaoCandidatoService atualizacaoService;
+    private final DadosReferenciaService dadosReferenciaService;
+    private final EstatisticaCandidatoService estatisticaService;
+    private final int tamanhoLote;
+    private final int threadsMapeamento;
 
     public Filtro(CandidatoRepository candidatoRepository, CampusRepository campusRepository,
             com.example.energif.repository.EditalRepository editalRepository,
-            CampusEditalRepository campusEditalRepository, CampusEditalTurnoRepository turnoRepository) {
+            CampusEditalRepository campusEditalRepository, CampusEditalTurnoRepository turnoRepository,
+            CandidatoLoteService candidatoLoteService, CargaRapidaCandidatoService cargaRapidaService,
+            AtualizacaoCandidatoService atualizacaoService, DadosReferenciaService dadosReferenciaService,
+            EstatisticaCandidatoService estatisticaService,
+            @Value("${energif.importacao.tamanho-lote:500}") int tamanhoLote,
+            @Value("${energif.importacao.threads-mapeamento:0}") int threadsMapeamento) {
         this.candidatoRepository = candidatoRepository;
         this.campusRepository = campusRepository;
         this.editalRepository = editalRepository;
         this.campusEditalRepository = campusEditalRepository;
         this.turnoRepository = turnoRepository;
+        this.candidatoLoteService = candidatoLoteService;
+        this.cargaRapidaService = cargaRapidaService;
+        this.atualizacaoService = atualizacaoService;
+        this.dadosReferenciaService = dadosReferenciaService;
+        this.estatisticaService = estatisticaService;
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.threadsMapeamento = threadsMapeamento;
     }
 
     public int importarXlsx(File xlsxFile) throws Exception {
         return importarXlsx(xlsxFile, null);
     }
     public int importarXlsx(File xlsxFile, String editalDescricao) throws Exception {
+        return importarXlsx(xlsxFile, editalDescricao, new ProgressoImportacao());
+    }
+
+    /**
+     * Importa a planilha atualizando {@code progresso} a cada linha, para quem
+     * acompanha a importação em segundo plano.
+     */
+    public int importarXlsx(File xlsxFile, String editalDescricao, ProgressoImportacao progresso) throws Exception {
+        return importar(xlsxFile, editalDescricao, progresso, false, false);
+    }
+
+    /**
+     * Importação incremental, para planilhas que só crescem (export do Forms,
+     * em ordem de "Carimbo de data/hora"): a inscrição mais recente já gravada
+     * no edital serve de marca, e as linhas com carimbo igual ou anterior a ela
+     * (ou sem carimbo) são descartadas na leitura, sem passar pelo mapeamento.
+     * As demais são importadas como em {@link #importarXlsx(File, String)}.
+     * Sem candidatos no edital, o arquivo é importado inteiro.
+     */
+    public int importarXlsxIncremental(File xlsxFile, String editalDescricao, ProgressoImportacao progresso)
+            throws Exception {
+        if (editalDescricao == null || editalDescricao.isBlank()) {
+            throw new IllegalArgumentException("A importação incremental precisa de um edital");
+        }
+        return importar(xlsxFile, editalDescricao, progresso, false, true);
+    }
+
+    /**
+     * Importação em modo atualização ({@link AtualizacaoCandidatoService}): cada
+     * linha é identificada pelo CPF dentro do edital. Inscrições novas são
+     * inseridas, as que mudaram na planilha são atualizadas e as idênticas não
+     * são regravadas, então reimportar o mesmo arquivo não duplica ninguém.
+     * Linhas sem CPF não podem ser identificadas e contam como falha, assim como
+     * repetições de um CPF na mesma planilha (vale a primeira).
+     */
+    public int importarXlsxAtualizacao(File xlsxFile, String editalDescricao, ProgressoImportacao progresso)
+            throws Exception {
+        if (editalDescricao == null || editalDescricao.isBlank()) {
+            throw new IllegalArgumentException("A importação em modo atualização precisa de um edital");
+        }
+        return importar(xlsxFile, editalDescricao, progresso, true, false);
+    }
+
+    private int importar(File xlsxFile, String editalDescricao, ProgressoImportacao progresso, boolean atualizacao,
+            boolean incremental) throws Exception {
+        try {
+            return importarPlanilha(xlsxFile, editalDescricao, progresso, atualizacao, incremental);
+        } finally {
+            aposImportacao();
+        }
+    }
+
+    /**
+     * Mesmo uma importação interrompida pode ter gravado candidatos, campi e
+     * turnos novos: invalida o cache de referência e limpa as chaves zeradas
+     * da estatística.
+     */
+    private void aposImportacao() {
+        dadosReferenciaService.candidatosAlterados();
+        try {
+            estatisticaService.compactar();
+        } catch (RuntimeException ex) {
+            // as linhas zeradas não alteram as contagens; só não foram removidas
+            log.warn("Falha ao compactar a estatística de candidatos: {}", ex.getMessage());
+        }
+    }
+
+    private int importarPlanilha(File xlsxFile, String editalDescricao, ProgressoImportacao progresso,
+            boolean atualizacao, boolean incremental) throws Exception {
+        progresso.iniciar();
+        RelatorioImportacao relatorio = progresso.getRelatorio();
+        long inicio = System.nanoTime();
+        com.example.energif.model.Edital targetEdital = buscarOuCriarEdital(editalDescricao);
+        if (atualizacao) {
+            int adotados = atualizacaoService.prepararEdital(targetEdital);
+            if (adotados > 0) {
+                log.info("{} candidatos importados antes do modo atualização passam a ser identificados pelo CPF",
+                        adotados);
+            }
+        }
+        LocalDateTime marca = null;
+        if (incremental) {
+            marca = ultimaInscricao(targetEdital);
+            log.info("Importação incremental do edital '{}': marca {}", targetEdital.getDescricao(),
+                    marca != null ? marca : "(nenhuma, arquivo inteiro)");
+        }
+
+        ImportacaoPlanilha importacao = new ImportacaoPlanilha(targetEdital, new ResolucaoImportacao(targetEdital),
+                progresso, atualizacao);
+        relatorio.registrarTempo("preparacao", System.nanoTime() - inicio);
+        boolean temPlanilha = lerCandidatos(xlsxFile, progresso, marca, importacao);
+        if (!temPlanilha) {
+            log.warn("Planilha vazia: {}", xlsxFile.getAbsolutePath());
+            return 0;
+        }
+        long t = System.nanoTime();
+        importacao.gravarLote();
+        relatorio.registrarTempo("gravacao", System.nanoTime() - t);
+        relatorio.registrarTempo("total", System.nanoTime() - inicio);
+
+        if (atualizacao) {
+            if (importacao.semCpf > 0) {
+                log.warn("{} linhas sem CPF ignoradas: não há como identificá-las no modo atualização",
+                        importacao.semCpf);
+            }
+            if (importacao.repetidos > 0) {
+                log.warn("{} linhas com CPF repetido na planilha ignoradas: vale a primeira inscrição",
+                        importacao.repetidos);
+            }
+            log.info("Atualização finalizada - {} inseridos/atualizados, {} inalterados, de {} - {}",
+                    importacao.imported, progresso.getInalteradas(), xlsxFile.getName(), relatorio);
+        } else {
+            log.info("Import finished - {} records imported from {} - {}", importacao.imported, xlsxFile.getName(),
+                    relatorio);
+        }
+        return importacao.imported;
+    }
+
+    /**
+     * Importação pela carga rápida ({@link CargaRapidaCandidatoService}): as linhas
+     * são mapeadas como em {@link #importarXlsx(File, String)}, mas em vez de
+     * consultar/gravar campus e turnos linha a linha, tudo é enviado via COPY e
+     * resolvido no banco com poucos comandos. É tudo ou nada: uma falha desfaz
+     * a importação inteira.
+     */
+    public int importarXlsxCargaRapida(File xlsxFile, String editalDescricao) throws Exception {
+        return importarXlsxCargaRapida(xlsxFile, editalDescricao, new ProgressoImportacao());
+    }
+
+    public int importarXlsxCargaRapida(File xlsxFile, String editalDescricao, ProgressoImportacao progresso)
+            throws Exception {
+        progresso.iniciar();
+        RelatorioImportacao relatorio = progresso.getRelatorio();
+        long inicio = System.nanoTime();
+        com.example.energif.model.Edital targetEdital = buscarOuCriarEdital(editalDescricao);
+        relatorio.registrarTempo("preparacao", System.nanoTime() - inicio);
+
+        long[] leitura = new long[1];
+        long t = System.nanoTime();
+        int imported;
+        try {
+            imported = cargaRapidaService.carregar(targetEdital, destino -> {
+                long l = System.nanoTime();
+                boolean temPlanilha = lerCandidatos(xlsxFile, progresso, null, destino);
+                leitura[0] = System.nanoTime() - l;
+                if (!temPlanilha) {
+                    log.warn("Planilha vazia: {}", xlsxFile.getAbsolutePath());
+                }
+            });
+        } finally {
+            aposImportacao();
+        }
+        // o que não foi leitura + COPY é a consolidação no banco
+        relatorio.registrarTempo("consolidacao", System.nanoTime() - t - leitura[0]);
+        relatorio.registrarTempo("total", System.nanoTime() - inicio);
+        progresso.gravadas(imported);
+
+        log.info("Carga rápida finalizada - {} registros importados de {} - {}", imported, xlsxFile.getName(),
+                relatorio);
+        return imported;
+    }
+
+    /**
+     * Lê a planilha pelo {@link PipelineImportacao}: a primeira linha define as
+     * colunas, as demais são mapeadas em paralelo (com o campus identificado só
+     * pelo nome) e entregues ao {@code escritor} na ordem do arquivo, sempre na
+     * thread que chamou este método.
+     *
+     * Com {@code marca}, linhas com carimbo de data/hora até ela (inclusive) ou
+     * sem carimbo são descartadas já na leitura.
+     *
+     * O tempo de mapeamento registrado no relatório é a soma entre as threads
+     * mapeadoras; o de gravação é o gasto dentro do {@code escritor}.
+     *
+     * @return false se o arquivo não possuir nenhuma aba
+     */
+    private boolean lerCandidatos(File xlsxFile, ProgressoImportacao progresso, LocalDateTime marca,
+            Consumer<Candidato> escritor) throws Exception {
+        boolean[] temPlanilha = new boolean[1];
+        MapeadorLinhaCandidato[] mapeador = new MapeadorLinhaCandidato[1];
+        RelatorioImportacao relatorio = progresso.getRelatorio();
+        long[] gravacao = new long[1];
+
+        new PipelineImportacao(threadsMapeamento, TAMANHO_BLOCO_MAPEAMENTO).executar(
+                linhas -> temPlanilha[0] = new LeitorXlsxStreaming().lerPrimeiraPlanilha(xlsxFile, r -> {
+                    if (mapeador[0] == null) {
+                        // read header (antes de qualquer linha ser enviada aos mapeadores)
+                        mapeador[0] = new MapeadorLinhaCandidato(mapHeaderIndices(r, relatorio), relatorio);
+                        return;
+                    }
+                    progresso.linhaLida();
+                    if (marca != null) {
+                        LocalDateTime inscricao = mapeador[0].inscricao(r);
+                        if (inscricao == null || !inscricao.isAfter(marca)) {
+                            progresso.ignorada();
+                            return;
+                        }
+                    }
+                    linhas.accept(r);
+                }, total -> progresso.setTotalEstimado(Math.max(0, total - 1))),
+                r -> {
+                    long t = System.nanoTime();
+                    try {
+                        return mapeador[0].mapear(r);
+                    } catch (Exception ex) {
+                        progresso.falha();
+                        relatorio.registrarFalha("linha", r.getRowNum() + 1, String.valueOf(ex.getMessage()));
+                        return null;
+                    } finally {
+                        relatorio.registrarTempo("mapeamento", System.nanoTime() - t);
+                    }
+                },
+                c -> {
+                    long t = System.nanoTime();
+                    escritor.accept(c);
+                    gravacao[0] += System.nanoTime() - t;
+                });
+        relatorio.registrarTempo("gravacao", gravacao[0]);
+        return temPlanilha[0];
+    }
+
+    /** Marca da importação incremental: data/hora da inscrição mais recente do edital. */
+    private LocalDateTime ultimaInscricao(com.example.energif.model.Edital edital) {
+        List<Object[]> ultima = candidatoRepository.findUltimaInscricao(edital.getId());
+        if (ultima.isEmpty()) {
+            return null;
+        }
+        return LocalDateTime.of((LocalDate) ultima.get(0)[0], (LocalTime) ultima.get(0)[1]);
+    }
+
+    private com.example.energif.model.Edital buscarOuCriarEdital(String editalDescricao) {
         com.example.energif.model.Edital targetEdital = null;
         if (editalDescricao != null && !editalDescricao.isBlank()) {
             // find-or-create by descricao
@@ -86,99 +339,250 @@ public class Filtro {
                 targetEdital = editalRepository.save(targetEdital);
             }
         }
+        return targetEdital;
+    }
 
-        try (InputStream is = new FileInputStream(xlsxFile);
-                Workbook workbook = new XSSFWorkbook(is)) {
+    /**
+     * Estágio de gravação da importação: recebe os candidatos já mapeados, na
+     * ordem da planilha, resolve campus e turno pelo {@link ResolucaoImportacao}
+     * e acumula até completar um lote, que é gravado de uma vez pelo
+     * {@link CandidatoLoteService} (ou sincronizado pelo
+     * {@link AtualizacaoCandidatoService}, no modo atualização).
+     */
+    private class ImportacaoPlanilha implements Consumer<Candidato> {
+
+        private final com.example.energif.model.Edital targetEdital;
+        private final ResolucaoImportacao resolucao;
+        private final ProgressoImportacao progresso;
+        private final boolean atualizacao;
+        private final List<Candidato> lote = new ArrayList<>(tamanhoLote);
+        private int imported;
+        private int semCpf;
+        private int repetidos;
+        private final Set<String> cpfsVistos = new HashSet<>();
+
+        ImportacaoPlanilha(com.example.energif.model.Edital targetEdital, ResolucaoImportacao resolucao,
+                ProgressoImportacao progresso, boolean atualizacao) {
+            this.targetEdital = targetEdital;
+            this.resolucao = resolucao;
+            this.progresso = progresso;
+            this.atualizacao = atualizacao;
+        }
 
-            Sheet sheet = workbook.getNumberOfSheets() > 0 ? workbook.getSheetAt(0) : null;
-            if (sheet == null) {
-                log.warn("Planilha vazia: {}", xlsxFile.getAbsolutePath());
-                return 0;
+        @Override
+        public void accept(Candidato c) {
+            if (atualizacao && (c.getCpf() == null || c.getCpf().isEmpty())) {
+                progresso.falha();
+                semCpf++;
+                return;
+            }
+            if (atualizacao && !cpfsVistos.add(c.getCpf())) {
+                // vale a primeira inscrição do CPF, como na ordem da planilha
+                progresso.falha();
+                repetidos++;
+                return;
             }
+            try {
+                if (c.getCampus() != null) {
+                    c.setCampus(resolucao.campus(c.getCampus().getNome()));
+                }
+                if (targetEdital != null)
+                    c.setEdital(targetEdital);
+                lote.add(c);
+
+                // Se importamos dentro de um edital, garanta apenas o turno
+                // exatamente como está no arquivo
+                if (c.getCampus() != null && c.getEdital() != null) {
+                    if (c.getTurno() != null && !c.getTurno().isBlank()) {
+                        resolucao.garantirTurno(c.getCampus(), c.getTurno());
+                    }
+                }
 
-            Iterator<Row> rowIt = sheet.iterator();
-            if (!rowIt.hasNext())
-                return 0;
-
-            // read header
-            Row header = rowIt.next();
-            Map<String, Integer> colIndex = mapHeaderIndices(header);
-
-            int imported = 0;
-            while (rowIt.hasNext()) {
-                Row r = rowIt.next();
-                try {
-                    Candidato c = mapRowToCandidato(r, colIndex);
-                    if (c != null) {
-                        if (targetEdital != null)
-                            c.setEdital(targetEdital);
-                        candidatoRepository.save(c);
-
-                        // Se importamos dentro de um edital, garanta apenas o turno
-                        // exatamente como está no arquivo
-                        if (c.getCampus() != null && c.getEdital() != null) {
-                            if (c.getTurno() != null && !c.getTurno().isBlank()) {
-                                criarTurnoSeNaoExistir(c.getCampus(), c.getEdital(), c.getTurno());
-                            }
-                        }
+                if (lote.size() >= tamanhoLote) {
+                    gravarLote();
+                }
+            } catch (Exception ex) {
+                progresso.falha();
+                log.warn("Falha ao importar candidato {}: {}", c.getNome(), ex.getMessage());
+            }
+        }
 
-                        imported++;
+        void gravarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                gravar(lote);
+            } catch (Exception ex) {
+                // o lote inteiro voltou atrás: regrava linha a linha para isolar a(s) linha(s) com erro
+                log.warn("Falha ao gravar lote de {} candidatos ({}). Gravando individualmente.",
+                        lote.size(), ex.getMessage());
+                for (Candidato c : lote) {
+                    try {
+                        if (atualizacao) {
+                            gravar(List.of(c));
+                        } else {
+                            c.setId(null);
+                            candidatoRepository.save(c);
+                            imported++;
+                            progresso.gravadas(1);
+                        }
+                    } catch (Exception e) {
+                        progresso.falha();
+                        log.warn("Falha ao importar candidato {}: {}", c.getNome(), e.getMessage());
                     }
-                } catch (Exception ex) {
-                    log.warn("Falha ao importar linha {}: {}", r.getRowNum(), ex.getMessage());
                 }
             }
+            lote.clear();
+        }
+
+        private void gravar(List<Candidato> candidatos) {
+            if (!atualizacao) {
+                candidatoLoteService.gravarLote(candidatos);
+                imported += candidatos.size();
+                progresso.gravadas(candidatos.size());
+                return;
+            }
+            RelatorioImportacao relatorio = progresso.getRelatorio();
+            AtualizacaoCandidatoService.Resultado r = atualizacaoService.gravarLote(targetEdital, candidatos,
+                    relatorio.possuiColuna("situacao"), relatorio.possuiColuna("motivo"));
+            imported += r.inseridos() + r.atualizados();
+            progresso.gravadas(r.inseridos() + r.atualizados());
+            progresso.atualizadas(r.atualizados());
+            progresso.inalteradas(r.inalterados());
+        }
+    }
+
+    /**
+     * Cache de campus, CampusEdital e turnos válido durante uma importação.
+     *
+     * Todos os campi e os CampusEdital/turnos do edital são carregados uma única
+     * vez no início; depois disso cada linha é resolvida por lookup em memória e
+     * o banco só é consultado para criar o que ainda não existe, na primeira vez
+     * em que aparece na planilha.
+     */
+    private class ResolucaoImportacao {
+
+        private final com.example.energif.model.Edital edital;
+        private final Map<String, Campus> campusPorNome = new HashMap<>();
+        private final Map<Long, CampusEdital> campusEditalPorCampus = new HashMap<>();
+        private final Set<String> turnos = new HashSet<>();
+
+        ResolucaoImportacao(com.example.energif.model.Edital edital) {
+            this.edital = edital;
+            for (Campus campus : campusRepository.findAll()) {
+                campusPorNome.put(campus.getNome(), campus);
+            }
+            if (edital != null && edital.getId() != null) {
+                for (CampusEdital ce : campusEditalRepository.findAllByEditalIdComCampus(edital.getId())) {
+                    campusEditalPorCampus.put(ce.getCampus().getId(), ce);
+                }
+                for (CampusEditalTurno t : turnoRepository.findAllByEditalId(edital.getId())) {
+                    turnos.add(chaveTurno(t.getCampusEdital(), t.getTurno()));
+                }
+            }
+            log.debug("Cache de importação: {} campi, {} CampusEdital, {} turnos",
+                    campusPorNome.size(), campusEditalPorCampus.size(), turnos.size());
+        }
+
+        Campus campus(String campusName) {
+            Campus campus = campusPorNome.get(campusName);
+            if (campus == null) {
+                campus = new Campus();
+                campus.setNome(campusName);
+                // Define valores padrão para vagas: zero para forçar configuração manual
+                campus.setNumeroVagasReservadas(0);
+                campus.setNumeroVagasAmplaConcorrencia(0);
+                campus.setVagasReservadasOcupadas(0);
+                campus.setVagasAmplaOcupadas(0);
+                campus = campusRepository.save(campus);
+                campusPorNome.put(campusName, campus);
+                log.info("Novo campus criado: {} com vagas padrão", campusName);
+            }
+            return campus;
+        }
+
+        /**
+         * Garante que exista o CampusEdital do campus no edital e o turno
+         * exatamente como veio no arquivo.
+         */
+        void garantirTurno(Campus campus, String turno) {
+            try {
+                CampusEdital ce = campusEditalPorCampus.get(campus.getId());
+                if (ce == null) {
+                    // Criar CampusEdital automaticamente se não existir
+                    log.info("CampusEdital não encontrado para campus={} edital={}. Criando automaticamente...",
+                            campus.getId(), edital.getId());
+                    ce = new CampusEdital();
+                    ce.setCampus(campus);
+                    ce.setEdital(edital);
+                    ce = campusEditalRepository.save(ce);
+                    campusEditalPorCampus.put(campus.getId(), ce);
+                    log.info("CampusEdital criado com sucesso: id={}", ce.getId());
+                }
+
+                if (!turnos.add(chaveTurno(ce, turno))) {
+                    return;
+                }
+
+                // Criar nova turno com vagas padrão (0) - será configurado manualmente pelo
+                // admin
+                CampusEditalTurno newTurno = new CampusEditalTurno();
+                newTurno.setCampusEdital(ce);
+                newTurno.setTurno(turno);
+                newTurno.setNumeroVagasReservadas(0);
+                newTurno.setNumeroVagasAmplaConcorrencia(0);
+                newTurno.setVagasReservadasOcupadas(0);
+                newTurno.setVagasAmplaOcupadas(0);
+                turnoRepository.save(newTurno);
+
+                log.info("Nova turno criada automaticamente: '{}' para CampusEdital {}", turno, ce.getId());
+            } catch (Exception e) {
+                log.warn("Erro ao criar turno automaticamente: {}", e.getMessage());
+            }
+        }
 
-            log.info("Import finished - {} records imported from {}", imported, xlsxFile.getName());
-            return imported;
+        private String chaveTurno(CampusEdital ce, String turno) {
+            return ce.getId() + "|" + turno;
         }
     }
 
-    private Map<String, Integer> mapHeaderIndices(Row header) {
+    private Map<String, Integer> mapHeaderIndices(LinhaPlanilha header, RelatorioImportacao relatorio) {
         Map<String, Integer> map = new HashMap<>();
+        Map<String, Integer> exatas = new HashMap<>();
 
-        System.out.println("=== DEBUG HEADER COLUMNS ===");
-        for (Cell cell : header) {
+        for (LinhaPlanilha.Celula cell : header.getCelulas()) {
             String txt = safeString(cell);
-            System.out.println("Coluna " + cell.getColumnIndex() + ": '" + txt + "'");
             String normalizedTxt = normalizeHeaderText(txt);
 
             // BUSCA EXATA pelas colunas específicas
             switch (normalizedTxt) {
                 case "carimbo de data/hora":
                 case "timestamp":
-                    map.put("timestamp", cell.getColumnIndex());
-                    System.out.println(">>> CARIMBO DE DATA/HORA EXATO encontrado na coluna: " + cell.getColumnIndex());
+                    map.put("timestamp", cell.getColuna());
                     break;
                 case "campus (cidade) e turno:":
                 case "campus (cidade) e turno":
-                    map.put("campus_turno", cell.getColumnIndex());
-                    System.out.println(">>> CAMPUS E TURNO EXATO encontrado na coluna: " + cell.getColumnIndex());
+                    map.put("campus_turno", cell.getColuna());
                     break;
                 case "nome completo":
-                    map.put("nome", cell.getColumnIndex());
-                    System.out.println(">>> NOME COMPLETO EXATO encontrado na coluna: " + cell.getColumnIndex());
+                    map.put("nome", cell.getColuna());
                     break;
                 case "genero":
                 case "gênero":
-                    map.put("genero", cell.getColumnIndex());
-                    System.out.println(">>> GÊNERO EXATO encontrado na coluna: " + cell.getColumnIndex());
+                    map.put("genero", cell.getColuna());
                     break;
                 case "data de nascimento":
-                    map.put("dataNascimento", cell.getColumnIndex());
-                    System.out.println(">>> DATA DE NASCIMENTO EXATA encontrada na coluna: " + cell.getColumnIndex());
+                    map.put("dataNascimento", cell.getColuna());
                     break;
                 case "cpf":
-                    map.put("cpf", cell.getColumnIndex());
-                    System.out.println(">>> CPF EXATO encontrado na coluna: " + cell.getColumnIndex());
+                    map.put("cpf", cell.getColuna());
                     break;
                 case "situacao":
-                    map.put("situacao", cell.getColumnIndex());
-                    System.out.println(">>> SITUAÇÃO EXATA encontrada na coluna: " + cell.getColumnIndex());
+                    map.put("situacao", cell.getColuna());
                     break;
                 case "motivo":
-                    map.put("motivo", cell.getColumnIndex());
-                    System.out.println(">>> MOTIVO EXATO encontrado na coluna: " + cell.getColumnIndex());
+                    map.put("motivo", cell.getColuna());
                     break;
                 default:
                     break;
@@ -186,102 +590,76 @@ public class Filtro {
             // REMOVIDO: busca por "tipo_vaga" pois agora é determinado pelo gênero
         }
 
+        exatas.putAll(map);
+
         // Busca aproximada (fallback) para colunas que não foram encontradas exatamente
-        System.out.println("=== BUSCA APROXIMADA (FALLBACK) ===");
-        for (Cell cell : header) {
+        for (LinhaPlanilha.Celula cell : header.getCelulas()) {
             String txt = safeString(cell).toLowerCase();
             String normalizedTxt = normalizeHeaderText(txt);
             
             // Fallback para Campus e Turno separados
             if (!map.containsKey("campus") && (txt.contains("campus") || txt.contains("cidade"))) {
-                map.put("campus", cell.getColumnIndex());
-                System.out.println(">>> CAMPUS (aproximado) encontrado na coluna: " + cell.getColumnIndex());
+                map.put("campus", cell.getColuna());
             }
             if (!map.containsKey("turno") && txt.contains("turno")) {
-                map.put("turno", cell.getColumnIndex());
-                System.out.println(">>> TURNO (aproximado) encontrado na coluna: " + cell.getColumnIndex());
+                map.put("turno", cell.getColuna());
             }
             
             // Fallback para Timestamp
             if (!map.containsKey("timestamp") && (txt.contains("timestamp") || txt.contains("data/hora") || txt.contains("carimbo"))) {
-                map.put("timestamp", cell.getColumnIndex());
-                System.out.println(">>> TIMESTAMP (aproximado) encontrado na coluna: " + cell.getColumnIndex());
+                map.put("timestamp", cell.getColuna());
             }
             
             // Fallback para Nome
             if (!map.containsKey("nome") && (txt.contains("nome") || txt.contains("candidat"))) {
-                map.put("nome", cell.getColumnIndex());
-                System.out.println(">>> NOME (aproximado) encontrado na coluna: " + cell.getColumnIndex());
+                map.put("nome", cell.getColuna());
             }
             
             // Fallback para Gênero
             if (!map.containsKey("genero") && (txt.contains("genero") || txt.contains("gênero") || txt.contains("sexo"))) {
-                map.put("genero", cell.getColumnIndex());
-                System.out.println(">>> GÊNERO (aproximado) encontrado na coluna: " + cell.getColumnIndex());
+                map.put("genero", cell.getColuna());
             }
             
             // Fallback para Data de Nascimento
             if (!map.containsKey("dataNascimento") && (txt.contains("nascimento") || txt.contains("nasc") || txt.contains("data_nasc"))) {
-                map.put("dataNascimento", cell.getColumnIndex());
-                System.out.println(">>> DATA DE NASCIMENTO (aproximado) encontrada na coluna: " + cell.getColumnIndex());
+                map.put("dataNascimento", cell.getColuna());
             }
             
             // Fallback para CPF
             if (!map.containsKey("cpf") && txt.contains("cpf")) {
-                map.put("cpf", cell.getColumnIndex());
-                System.out.println(">>> CPF (aproximado) encontrado na coluna: " + cell.getColumnIndex());
+                map.put("cpf", cell.getColuna());
             }
 
             if (!map.containsKey("situacao") && (normalizedTxt.contains("situacao") || normalizedTxt.contains("status"))) {
-                map.put("situacao", cell.getColumnIndex());
-                System.out.println(">>> SITUAÇÃO (aproximado) encontrada na coluna: " + cell.getColumnIndex());
+                map.put("situacao", cell.getColuna());
             }
 
             if (!map.containsKey("motivo") && (normalizedTxt.contains("motivo") || normalizedTxt.contains("justificativa") || normalizedTxt.contains("observacao"))) {
-                map.put("motivo", cell.getColumnIndex());
-                System.out.println(">>> MOTIVO (aproximado) encontrado na coluna: " + cell.getColumnIndex());
+                map.put("motivo", cell.getColuna());
             }
         }
 
+        // Mapeamento final vai para o relatório da importação, na ordem das colunas
+        map.entrySet().stream().sorted(Map.Entry.comparingByValue()).forEach(e -> relatorio.registrarColuna(
+                e.getKey(), e.getValue(), safeString(header.getCelula(e.getValue())),
+                e.getValue().equals(exatas.get(e.getKey()))));
+
         // Verificação se todas as colunas obrigatórias foram encontradas
-        System.out.println("=== VERIFICAÇÃO DE COLUNAS OBRIGATÓRIAS ===");
         String[] obrigatorias = { "timestamp", "nome", "genero", "dataNascimento", "cpf", "situacao", "motivo" };
         for (String col : obrigatorias) {
             if (!map.containsKey(col)) {
-                System.out.println("!!! ERRO: Coluna obrigatória não encontrada: " + col);
-            } else {
-                System.out.println("✓ Coluna " + col + " encontrada na posição: " + map.get(col));
+                relatorio.registrarColunaAusente(col);
             }
         }
 
         // Campus é obrigatório (seja como campus_turno ou separado)
         if (!map.containsKey("campus_turno") && !map.containsKey("campus")) {
-            System.out.println("!!! ERRO: Nenhuma coluna de CAMPUS encontrada (campus_turno ou campus)");
-        } else {
-            System.out.println("✓ Campus encontrado (campus_turno ou campus)");
+            relatorio.registrarColunaAusente("campus");
         }
 
-        System.out.println("Map final: " + map);
-        System.out.println("=============================");
-
         return map;
     }
 
-    /**
-     * Preserva o turno exatamente como está no arquivo.
-     */
-    private String normalizeTurno(String raw) {
-        if (raw == null) {
-            return null;
-        }
-        String s = raw.trim();
-        if (s.isEmpty()) {
-            return null;
-        }
-        log.debug("Turno preservado do arquivo: '{}'", s);
-        return s;
-    }
-
     private String normalizeHeaderText(String raw) {
         if (raw == null) {
             return "";
@@ -291,363 +669,11 @@ public class Filtro {
         return normalized.toLowerCase().trim();
     }
 
-    /**
-     * Converte uma string (lida do arquivo Excel) para o enum SituacaoCandidato.
-     * Tenta encontrar a correspondência exata ou aproximada.
-     * Se não conseguir converter, retorna PENDENTE como padrão.
-     */
-    private SituacaoCandidato converterStringSituacao(String str) {
-        if (str == null || str.isBlank()) {
-            log.debug("Situação vazia - usando padrão PENDENTE");
-            return SituacaoCandidato.PENDENTE;
-        }
-
-        String normalized = str.trim().toUpperCase();
-        
-        // Busca exata pelos nomes dos enums
-        try {
-            return SituacaoCandidato.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            log.debug("Situação '{}' não encontrada como enum exato, tentando aproximação", str);
-        }
-
-        // Busca aproximada pela descrição
-        for (SituacaoCandidato sit : SituacaoCandidato.values()) {
-            if (sit.getDescricao().equalsIgnoreCase(str)) {
-                log.debug("Situação '{}' convertida para {}", str, sit);
-                return sit;
-            }
-        }
-
-        // Busca parcial
-        if (normalized.contains("CLASSIF")) {
-            return SituacaoCandidato.CLASSIFICADO;
-        } else if (normalized.contains("HABITL") || normalized.contains("HABILITAD")) {
-            return SituacaoCandidato.HABILITADO;
-        } else if (normalized.contains("RESERV")) {
-            return SituacaoCandidato.CADASTRO_RESERVA;
-        } else if (normalized.contains("ELIMIN")) {
-            return SituacaoCandidato.ELIMINADO;
-        }
-
-        log.warn("Situação '{}' não pôde ser convertida - usando padrão PENDENTE", str);
-        return SituacaoCandidato.PENDENTE;
-    }
-
-    private Candidato mapRowToCandidato(Row r, Map<String, Integer> cols) {
-        // read fields
-        String nome = getCellString(r, cols.get("nome"));
-        if (nome == null || nome.isBlank())
-            return null; // skip empty rows
-
-        String rawCpf = getCellString(r, cols.get("cpf"));
-        String cpf = rawCpf;
-        if (cpf != null) {
-            cpf = cpf.replaceAll("\\D+", "");
-        }
-
-        if (rawCpf != null && !rawCpf.isBlank()) {
-            log.debug("Row {}: raw CPF='{}' -> sanitized='{}'", r.getRowNum(), rawCpf, cpf);
-        }
-
-        String generoStr = getCellString(r, cols.get("genero"));
-        Character genero = null;
-        if (generoStr != null && !generoStr.isBlank()) {
-            // Normaliza o gênero para M ou F
-            if (generoStr.toUpperCase().startsWith("M") || generoStr.equalsIgnoreCase("Masculino")) {
-                genero = 'M';
-            } else if (generoStr.toUpperCase().startsWith("F") || generoStr.equalsIgnoreCase("Feminino")) {
-                genero = 'F';
-            }
-        }
-
-        LocalDate dataNasc = getCellLocalDate(r, cols.get("dataNascimento"));
-
-        // timestamp -> dataInscricao + horaInscricao
-        LocalDate dataInscricao = null;
-        LocalTime horaInscricao = null;
-        if (cols.containsKey("timestamp")) {
-            Cell tsCell = r.getCell(cols.get("timestamp"));
-            if (tsCell != null && tsCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(tsCell)) {
-                Instant instant = tsCell.getDateCellValue().toInstant();
-                LocalDateTime ldt = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
-                dataInscricao = ldt.toLocalDate();
-                horaInscricao = ldt.toLocalTime();
-            } else {
-                String s = getCellString(r, cols.get("timestamp"));
-                if (s != null && !s.isBlank()) {
-                    try {
-                        LocalDateTime ldt = LocalDateTime.parse(s);
-                        dataInscricao = ldt.toLocalDate();
-                        horaInscricao = ldt.toLocalTime();
-                    } catch (Exception ignore) {
-                    }
-                }
-            }
-        }
-
-        // campus and turno may be in the same column
-        String campusName = null;
-        String turno = null;
-        
-        if (cols.containsKey("campus_turno")) {
-            String v = getCellString(r, cols.get("campus_turno"));
-            log.debug("Row {}: Valor bruto campus_turno: '{}'", r.getRowNum(), v);
-            if (v != null) {
-                // Tenta divisão por separador único (-, |, /, ,) com limite de 2 partes
-                String[] parts = v.split("[-|,|/]", 2);
-                log.debug("Row {}: Split por separador [-|,|/]: {} partes -> ['{}', '{}']", 
-                    r.getRowNum(), parts.length, 
-                    parts.length > 0 ? parts[0] : "", 
-                    parts.length > 1 ? parts[1] : "");
-                
-                if (parts.length == 2) {
-                    campusName = parts[0].trim();
-                    turno = normalizeTurno(parts[1].trim());
-                    log.debug("Row {}: Campus='{}', Turno após normalização='{}'", r.getRowNum(), campusName, turno);
-                } else {
-                    // Se não achou separador, tenta split por espaço duplo
-                    String[] ws = v.split("\\s{2,}|\\r?\\n");
-                    log.debug("Row {}: Split por espaço duplo: {} partes", r.getRowNum(), ws.length);
-                    if (ws.length >= 2) {
-                        campusName = ws[0].trim();
-                        turno = normalizeTurno(ws[1].trim());
-                        log.debug("Row {}: Campus='{}', Turno após normalização='{}'", r.getRowNum(), campusName, turno);
-                    } else {
-                        campusName = v.trim();
-                        log.debug("Row {}: Nenhuma divisão encontrada, campusName='{}'", r.getRowNum(), campusName);
-                    }
-                }
-            }
-        } else {
-            // Campus e turno em colunas separadas (fallback)
-            campusName = getCellString(r, cols.get("campus"));
-            turno = getCellString(r, cols.get("turno"));
-            if (turno != null) {
-                turno = normalizeTurno(turno);
-            }
-            log.debug("Row {}: Campus e turno em colunas separadas - Campus='{}', Turno bruto='{}'", 
-                    r.getRowNum(), campusName, turno);
-        }
-
-        // NOTA: TipoVaga será determinado automaticamente pela AlocacaoVagaService
-        // durante o processamento de alocação de vagas, com base na ordem de inscrição,
-        // situação (classificado/habilitado) e gênero do candidato.
-        // Durante o import, deixamos tipoVaga como null.
-
-        // resolve or create campus
-        Campus campus = null;
-        if (campusName != null && !campusName.isBlank()) {
-            campus = campusRepository.findByNome(campusName);
-            if (campus == null) {
-                campus = new Campus();
-                campus.setNome(campusName);
-                // Define valores padrão para vagas: zero para forçar configuração manual
-                campus.setNumeroVagasReservadas(0);
-                campus.setNumeroVagasAmplaConcorrencia(0);
-                campus.setVagasReservadasOcupadas(0);
-                campus.setVagasAmplaOcupadas(0);
-                campus = campusRepository.save(campus);
-                log.info("Novo campus criado: {} com vagas padrão", campusName);
-            }
-        }
-
-        Candidato c = new Candidato();
-        c.setNome(nome);
-        c.setCpf(cpf);
-        c.setGenero(genero);
-        c.setDataNascimento(dataNasc);
-        c.setCampus(campus);
-        c.setTurno(turno);
-        c.setDataInscricao(dataInscricao);
-        c.setHoraInscricao(horaInscricao);
-        
-        // Converter string de situação para enum SituacaoCandidato
-        String situacaoStr = getCellString(r, cols.get("situacao"));
-        SituacaoCandidato situacao = converterStringSituacao(situacaoStr);
-        c.setSituacao(situacao);
-        
-        // Atribuir motivo (se disponível)
-        String motivo = getCellString(r, cols.get("motivo"));
-        if (motivo != null && !motivo.isBlank()) {
-            c.setMotivoNaoClassificacao(motivo);
-        }
-        
-        // TipoVaga será definido pela AlocacaoVagaService durante alocação de vagas
-
-        log.debug("Candidato mapeado: {} - Gênero: {} - Campus: {}",
-                nome, genero, campusName);
-
-        return c;
-    }
-
     // helpers
-    private String safeString(Cell cell) {
-        if (cell == null)
+    private String safeString(LinhaPlanilha.Celula cell) {
+        if (cell == null || cell.getTexto() == null)
             return "";
-        try {
-            DataFormatter fmt = new DataFormatter();
-            return fmt.formatCellValue(cell);
-        } catch (Exception e) {
-            return cell.toString();
-        }
-    }
-
-    private String getCellString(Row r, Integer idx) {
-        if (idx == null)
-            return null;
-        Cell c = r.getCell(idx);
-        if (c == null)
-            return null;
-        String s = safeString(c);
-        return s != null ? s.trim() : null;
-    }
-
-    private LocalDate getCellLocalDate(Row r, Integer idx) {
-        if (idx == null)
-            return null;
-        Cell c = r.getCell(idx);
-        if (c == null)
-            return null;
-
-        try {
-            // 1. Primeiro tenta como data numérica do Excel
-            if (c.getCellType() == CellType.NUMERIC) {
-                if (DateUtil.isCellDateFormatted(c)) {
-                    java.util.Date date = c.getDateCellValue();
-                    Instant instant = date.toInstant();
-                    LocalDate result = LocalDateTime.ofInstant(instant, ZoneId.systemDefault()).toLocalDate();
-                    log.debug("Data numérica formatada (Excel): {} -> {}", date, result);
-                    return result;
-                } else {
-                    // Número serial do Excel (dias desde 1900-01-01)
-                    double numericValue = c.getNumericCellValue();
-                    java.util.Date date = DateUtil.getJavaDate(numericValue);
-                    LocalDate result = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                    log.debug("Data numérica serial (Excel): {} -> {}", numericValue, result);
-                    return result;
-                }
-            }
-
-            // 2. Tenta como string - SEM TRANSFORMAÇÕES
-            String s = safeString(c);
-            if (s == null || s.isBlank())
-                return null;
-
-            s = s.trim();
-            log.debug("Tentando parsear data string: '{}'", s);
-
-            // 3. Tenta formato ISO (yyyy-MM-dd) - ORIGINAL DO ARQUIVO
-            try {
-                LocalDate result = LocalDate.parse(s);
-                log.debug("Data parseada com sucesso (ISO): {} -> {}", s, result);
-                return result;
-            } catch (Exception e1) {
-                log.debug("Não é formato ISO: {}", s);
-            }
-
-            // 4. Tenta formatos brasileiros (dd/MM/yyyy, dd.MM.yyyy, dd-MM-yyyy)
-            // SEM CORRIGIR ANOS COM 2 DÍGITOS - mantém como está no arquivo
-            String[] separators = { "/", "\\.", "-" };
-
-            for (String sep : separators) {
-                try {
-                    String[] parts = s.split(sep);
-                    if (parts.length == 3) {
-                        int dia = Integer.parseInt(parts[0].trim());
-                        int mes = Integer.parseInt(parts[1].trim());
-                        int ano = Integer.parseInt(parts[2].trim());
-
-                        // Valida dia e mês
-                        if (dia >= 1 && dia <= 31 && mes >= 1 && mes <= 12) {
-                            LocalDate result = LocalDate.of(ano, mes, dia);
-                            log.debug("Data parseada (DD/MM/YYYY): {} -> {}", s, result);
-                            return result;
-                        }
-                    }
-                } catch (Exception e) {
-                    log.debug("Falha ao parsear com separador '{}': {}", sep, e.getMessage());
-                }
-            }
-
-            // 5. Tenta formato americano (MM/dd/yyyy) - SEM CORRIGIR ANOS
-            try {
-                String[] parts = s.split("[/-]");
-                if (parts.length == 3) {
-                    int mes = Integer.parseInt(parts[0].trim());
-                    int dia = Integer.parseInt(parts[1].trim());
-                    int ano = Integer.parseInt(parts[2].trim());
-
-                    if (mes >= 1 && mes <= 12 && dia >= 1 && dia <= 31) {
-                        LocalDate result = LocalDate.of(ano, mes, dia);
-                        log.debug("Data parseada (MM/DD/YYYY): {} -> {}", s, result);
-                        return result;
-                    }
-                }
-            } catch (Exception e) {
-                log.debug("Falha ao parsear formato americano: {}", e.getMessage());
-            }
-
-            // Data não conseguiu ser parseada - retorna null
-            log.warn("Linha {}: Data de nascimento INVÁLIDA não pôde ser parseada: '{}'. " +
-                     "Candidato será importado com data_nascimento = null. " +
-                     "Por favor, verifique e delete este candidato se necessário.", 
-                     r.getRowNum(), s);
-            return null;
-
-        } catch (Exception ex) {
-            log.error("Erro ao processar data na linha {}: {}", r.getRowNum(), ex.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * Cria automaticamente um registro de turno (CampusEditalTurno) se não existir.
-     * Isso garante que quando um candidato é importado, a turno correspondente é
-     * registrada.
-     */
-    /**
-     * Guarantee that a CampusEdital exists and create the given turno if missing.
-     * Also provide a helper to create the three default turnos (Manhã/Tarde/Noite)
-     * when a CampusEdital is present.
-     */
-    private void criarTurnoSeNaoExistir(Campus campus, com.example.energif.model.Edital edital, String turno) {
-        try {
-            // Buscar CampusEdital
-            CampusEdital ce = campusEditalRepository.findByCampusAndEdital(campus, edital);
-            if (ce == null) {
-                // Criar CampusEdital automaticamente se não existir
-                log.info("CampusEdital não encontrado para campus={} edital={}. Criando automaticamente...", 
-                    campus.getId(), edital.getId());
-                ce = new CampusEdital();
-                ce.setCampus(campus);
-                ce.setEdital(edital);
-                ce = campusEditalRepository.save(ce);
-                log.info("CampusEdital criado com sucesso: id={}", ce.getId());
-            }
-
-            // Verificar se turno já existe
-            CampusEditalTurno existing = turnoRepository.findByCampusEditalAndTurno(ce, turno);
-            if (existing != null) {
-                log.debug("Turno '{}' já existe para CampusEdital {}", turno, ce.getId());
-                return;
-            }
-
-            // Criar nova turno com vagas padrão (0) - será configurado manualmente pelo
-            // admin
-            CampusEditalTurno newTurno = new CampusEditalTurno();
-            newTurno.setCampusEdital(ce);
-            newTurno.setTurno(turno);
-            newTurno.setNumeroVagasReservadas(0);
-            newTurno.setNumeroVagasAmplaConcorrencia(0);
-            newTurno.setVagasReservadasOcupadas(0);
-            newTurno.setVagasAmplaOcupadas(0);
-            turnoRepository.save(newTurno);
-
-            log.info("Nova turno criada automaticamente: '{}' para CampusEdital {}", turno, ce.getId());
-        } catch (Exception e) {
-            log.warn("Erro ao criar turno automaticamente: {}", e.getMessage());
-        }
+        return cell.getTexto();
     }
 
     /**
@@ -0,0 +1,245 @@
+package com.example.energif.util;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Leitura de .xlsx em modo streaming (modelo de eventos do POI).
+ *
+ * Diferente de {@code new XSSFWorkbook(is)}, que materializa todas as células
+ * da planilha no heap, aqui o XML da primeira aba é percorrido com SAX e cada
+ * linha é entregue ao consumidor assim que termina de ser lida. Apenas a
+ * tabela de strings compartilhadas e os estilos ficam em memória, então o
+ * consumo não cresce com o número de linhas.
+ */
+public class LeitorXlsxStreaming {
+
+    private final DataFormatter formatter = new DataFormatter();
+
+    /**
+     * Percorre a primeira aba do arquivo, chamando {@code consumidor} para cada
+     * linha (inclusive o cabeçalho), na ordem em que aparecem.
+     *
+     * @return false se o arquivo não possuir nenhuma aba
+     */
+    public boolean lerPrimeiraPlanilha(File xlsxFile, Consumer<LinhaPlanilha> consumidor) throws Exception {
+        return lerPrimeiraPlanilha(xlsxFile, consumidor, null);
+    }
+
+    /**
+     * Igual a {@link #lerPrimeiraPlanilha(File, Consumer)}, informando antes da
+     * primeira linha a quantidade de linhas declarada em {@code <dimension>}
+     * (quando a planilha a possui), útil para estimar o andamento.
+     */
+    public boolean lerPrimeiraPlanilha(File xlsxFile, Consumer<LinhaPlanilha> consumidor, IntConsumer totalLinhas)
+            throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(xlsxFile, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings strings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return false;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(strings, styles, consumidor, totalLinhas));
+                parser.parse(new InputSource(sheet));
+            }
+            return true;
+        }
+    }
+
+    private class SheetHandler extends DefaultHandler {
+
+        private final SharedStrings strings;
+        private final StylesTable styles;
+        private final Consumer<LinhaPlanilha> consumidor;
+        private final IntConsumer totalLinhas;
+
+        private final StringBuilder valor = new StringBuilder();
+        private final Formato semEstilo = new Formato(0, null);
+        private Formato[] formatos = new Formato[32];
+        private boolean lendoValor;
+        private LinhaPlanilha linha;
+        private int proximaLinha;
+        private int proximaColuna;
+
+        private int coluna;
+        private String tipo;
+        private String estilo;
+
+        SheetHandler(SharedStrings strings, StylesTable styles, Consumer<LinhaPlanilha> consumidor,
+                IntConsumer totalLinhas) {
+            this.strings = strings;
+            this.styles = styles;
+            this.consumidor = consumidor;
+            this.totalLinhas = totalLinhas;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            switch (localName) {
+                case "dimension" -> {
+                    // ex.: ref="A1:K2351"; a última referência dá a última linha
+                    String ref = attrs.getValue("ref");
+                    if (totalLinhas != null && ref != null) {
+                        String ultima = ref.substring(ref.lastIndexOf(':') + 1);
+                        try {
+                            totalLinhas.accept(new CellReference(ultima).getRow() + 1);
+                        } catch (RuntimeException ignore) {
+                        }
+                    }
+                }
+                case "row" -> {
+                    String r = attrs.getValue("r");
+                    int rowNum = r != null ? Integer.parseInt(r) - 1 : proximaLinha;
+                    linha = new LinhaPlanilha(rowNum);
+                    proximaLinha = rowNum + 1;
+                    proximaColuna = 0;
+                }
+                case "c" -> {
+                    String ref = attrs.getValue("r");
+                    coluna = ref != null ? colunaDaReferencia(ref) : proximaColuna;
+                    proximaColuna = coluna + 1;
+                    tipo = attrs.getValue("t");
+                    estilo = attrs.getValue("s");
+                    valor.setLength(0);
+                }
+                // <v> guarda o valor; <t> é o texto de strings inline (<is><t>)
+                case "v", "t" -> lendoValor = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (lendoValor) {
+                valor.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> lendoValor = false;
+                case "c" -> {
+                    if (linha != null && valor.length() > 0) {
+                        linha.adicionar(criarCelula());
+                    }
+                }
+                case "row" -> {
+                    if (linha != null) {
+                        consumidor.accept(linha);
+                        linha = null;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private LinhaPlanilha.Celula criarCelula() {
+            String bruto = valor.toString();
+            if (tipo == null || "n".equals(tipo)) {
+                double numero;
+                try {
+                    numero = Double.parseDouble(bruto);
+                } catch (NumberFormatException e) {
+                    return new LinhaPlanilha.Celula(coluna, bruto, null, false);
+                }
+                Formato formato = formato(estilo);
+                boolean data = formato.data && DateUtil.isValidExcelDate(numero);
+                String texto = formato.formatString != null
+                        ? formatter.formatRawCellContents(numero, formato.formatIndex, formato.formatString)
+                        : bruto;
+                return new LinhaPlanilha.Celula(coluna, texto, numero, data);
+            }
+            String texto = switch (tipo) {
+                case "s" -> strings.getItemAt(Integer.parseInt(bruto)).getString();
+                case "b" -> "1".equals(bruto) ? "TRUE" : "FALSE";
+                default -> bruto; // inlineStr, str (fórmula de texto), e (erro)
+            };
+            return new LinhaPlanilha.Celula(coluna, texto, null, false);
+        }
+
+        /** Formato numérico do estilo, resolvido uma vez por índice de estilo. */
+        private Formato formato(String estilo) {
+            int indice = estilo != null && styles != null ? Integer.parseInt(estilo) : -1;
+            if (indice < 0) {
+                return semEstilo;
+            }
+            if (indice >= formatos.length) {
+                formatos = Arrays.copyOf(formatos, indice + 1);
+            }
+            Formato formato = formatos[indice];
+            if (formato == null) {
+                int formatIndex = 0;
+                String formatString = null;
+                XSSFCellStyle style = styles.getStyleAt(indice);
+                if (style != null) {
+                    formatIndex = style.getDataFormat();
+                    formatString = style.getDataFormatString();
+                }
+                formato = new Formato(formatIndex, formatString);
+                formatos[indice] = formato;
+            }
+            return formato;
+        }
+    }
+
+    private static final class Formato {
+
+        final int formatIndex;
+        final String formatString;
+        final boolean data;
+
+        Formato(int formatIndex, String formatString) {
+            if (formatString == null) {
+                formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+            }
+            this.formatIndex = formatIndex;
+            this.formatString = formatString;
+            this.data = formatString != null && DateUtil.isADateFormat(formatIndex, formatString);
+        }
+    }
+
+    /** Coluna (base 0) de uma referência como "AB12", sem criar um CellReference. */
+    static int colunaDaReferencia(String ref) {
+        int coluna = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') {
+                coluna = coluna * 26 + (ch - 'A' + 1);
+            } else if (ch >= 'a' && ch <= 'z') {
+                coluna = coluna * 26 + (ch - 'a' + 1);
+            } else if (ch != '$') {
+                break;
+            }
+        }
+        return coluna - 1;
+    }
+}
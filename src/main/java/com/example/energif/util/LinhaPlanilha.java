@@ -0,0 +1,101 @@
+package com.example.energif.util;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * Linha lida da planilha pelo {@link LeitorXlsxStreaming}.
+ * Guarda apenas as células presentes no XML da linha, indexadas pela coluna
+ * (base 0), com o texto já formatado como o Excel exibiria. As células ficam
+ * em um array posicional, sem objetos extras por célula.
+ */
+public class LinhaPlanilha {
+
+    private final int rowNum;
+    private Celula[] celulas = new Celula[16];
+    private int quantidade;
+
+    public LinhaPlanilha(int rowNum) {
+        this.rowNum = rowNum;
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /** Células presentes, em ordem de coluna. */
+    public List<Celula> getCelulas() {
+        List<Celula> presentes = new ArrayList<>(quantidade);
+        for (Celula c : celulas) {
+            if (c != null) {
+                presentes.add(c);
+            }
+        }
+        return presentes;
+    }
+
+    public Celula getCelula(Integer coluna) {
+        if (coluna == null || coluna < 0 || coluna >= celulas.length) {
+            return null;
+        }
+        return celulas[coluna];
+    }
+
+    void adicionar(Celula celula) {
+        int coluna = celula.getColuna();
+        if (coluna >= celulas.length) {
+            celulas = Arrays.copyOf(celulas, Math.max(coluna + 1, celulas.length * 2));
+        }
+        if (celulas[coluna] == null) {
+            quantidade++;
+        }
+        celulas[coluna] = celula;
+    }
+
+    /**
+     * Valor de uma célula: texto formatado e, para células numéricas, o valor
+     * bruto e se o estilo aplicado é de data.
+     */
+    public static class Celula {
+
+        private final int coluna;
+        private final String texto;
+        private final Double numero;
+        private final boolean data;
+
+        public Celula(int coluna, String texto, Double numero, boolean data) {
+            this.coluna = coluna;
+            this.texto = texto;
+            this.numero = numero;
+            this.data = data;
+        }
+
+        public int getColuna() {
+            return coluna;
+        }
+
+        public String getTexto() {
+            return texto;
+        }
+
+        public boolean isNumerica() {
+            return numero != null;
+        }
+
+        public Double getNumero() {
+            return numero;
+        }
+
+        public boolean isData() {
+            return data;
+        }
+
+        public LocalDateTime getDataHora() {
+            return numero != null ? DateUtil.getLocalDateTime(numero) : null;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.example.energif.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.energif.model.Campus;
+import com.example.energif.model.Candidato;
+import com.example.energif.model.SituacaoCandidato;
+
+/**
+ * Converte as linhas de dados da planilha em {@link Candidato}.
+ *
+ * Criado uma vez por importação, a partir das colunas encontradas no
+ * cabeçalho, e depois só lido: pode ser usado por várias threads ao mesmo
+ * tempo. Como roda para cada linha do arquivo, evita o que pesava no caminho
+ * antigo: regex recompilada a cada chamada ({@code replaceAll}/{@code split}),
+ * exceções como controle de fluxo ao tentar formatos de data e situação, e
+ * arrays de varargs de logs de debug desligados.
+ *
+ * Valores que não puderam ser convertidos não geram log por linha: vão para o
+ * {@link RelatorioImportacao} da importação.
+ *
+ * O campus do candidato vem apenas com o nome; quem grava resolve o registro.
+ */
+public class MapeadorLinhaCandidato {
+
+    private static final Logger log = LoggerFactory.getLogger(MapeadorLinhaCandidato.class);
+
+    private static final Pattern ESPACO_DUPLO_OU_QUEBRA = Pattern.compile("\\s{2,}|\\r?\\n");
+
+    private static final Map<String, SituacaoCandidato> SITUACAO_POR_NOME = new HashMap<>();
+    static {
+        for (SituacaoCandidato s : SituacaoCandidato.values()) {
+            SITUACAO_POR_NOME.put(s.name(), s);
+        }
+    }
+
+    private final Integer colNome;
+    private final Integer colCpf;
+    private final Integer colGenero;
+    private final Integer colDataNascimento;
+    private final Integer colTimestamp;
+    private final Integer colCampusTurno;
+    private final Integer colCampus;
+    private final Integer colTurno;
+    private final Integer colSituacao;
+    private final Integer colMotivo;
+    private final RelatorioImportacao relatorio;
+
+    public MapeadorLinhaCandidato(Map<String, Integer> cols) {
+        this(cols, new RelatorioImportacao());
+    }
+
+    public MapeadorLinhaCandidato(Map<String, Integer> cols, RelatorioImportacao relatorio) {
+        this.relatorio = relatorio;
+        this.colNome = cols.get("nome");
+        this.colCpf = cols.get("cpf");
+        this.colGenero = cols.get("genero");
+        this.colDataNascimento = cols.get("dataNascimento");
+        this.colTimestamp = cols.get("timestamp");
+        this.colCampusTurno = cols.get("campus_turno");
+        this.colCampus = cols.get("campus");
+        this.colTurno = cols.get("turno");
+        this.colSituacao = cols.get("situacao");
+        this.colMotivo = cols.get("motivo");
+    }
+
+    /** @return null para linhas sem nome (linhas vazias são ignoradas) */
+    public Candidato mapear(LinhaPlanilha r) {
+        // read fields
+        String nome = getCellString(r, colNome);
+        if (nome == null || nome.isBlank())
+            return null; // skip empty rows
+
+        String rawCpf = getCellString(r, colCpf);
+        String cpf = somenteDigitos(rawCpf);
+        if (cpf != null && !rawCpf.isBlank() && cpf.length() != 11) {
+            relatorio.registrarFalha("cpf", linha(r), rawCpf);
+        }
+
+        if (log.isDebugEnabled() && rawCpf != null && !rawCpf.isBlank()) {
+            log.debug("Row {}: raw CPF='{}' -> sanitized='{}'", r.getRowNum(), rawCpf, cpf);
+        }
+
+        String generoStr = getCellString(r, colGenero);
+        Character genero = null;
+        if (generoStr != null && !generoStr.isBlank()) {
+            // Normaliza o gênero para M ou F
+            char inicial = Character.toUpperCase(generoStr.charAt(0));
+            if (inicial == 'M') {
+                genero = 'M';
+            } else if (inicial == 'F') {
+                genero = 'F';
+            } else {
+                relatorio.registrarFalha("genero", linha(r), generoStr);
+            }
+        }
+
+        LocalDate dataNasc = getCellLocalDate(r, colDataNascimento);
+
+        // timestamp -> dataInscricao + horaInscricao
+        LocalDate dataInscricao = null;
+        LocalTime horaInscricao = null;
+        LocalDateTime ldt = inscricao(r);
+        if (ldt != null) {
+            dataInscricao = ldt.toLocalDate();
+            horaInscricao = ldt.toLocalTime();
+        } else if (colTimestamp != null) {
+            String s = getCellString(r, colTimestamp);
+            if (s != null && !s.isBlank()) {
+                relatorio.registrarFalha("timestamp", linha(r), s);
+            }
+        }
+
+        // campus and turno may be in the same column
+        String campusName = null;
+        String turno = null;
+
+        if (colCampusTurno != null) {
+            String v = getCellString(r, colCampusTurno);
+            if (v != null) {
+                // Divide no primeiro separador (-, |, /, ,)
+                int sep = indiceSeparadorCampusTurno(v);
+                if (sep >= 0) {
+                    campusName = v.substring(0, sep).trim();
+                    turno = normalizeTurno(v.substring(sep + 1));
+                } else {
+                    // Se não achou separador, tenta split por espaço duplo
+                    String[] ws = ESPACO_DUPLO_OU_QUEBRA.split(v);
+                    if (ws.length >= 2) {
+                        campusName = ws[0].trim();
+                        turno = normalizeTurno(ws[1]);
+                    } else {
+                        campusName = v.trim();
+                    }
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Row {}: campus_turno='{}' -> Campus='{}', Turno='{}'", r.getRowNum(), v, campusName,
+                            turno);
+                }
+            }
+        } else {
+            // Campus e turno em colunas separadas (fallback)
+            campusName = getCellString(r, colCampus);
+            turno = normalizeTurno(getCellString(r, colTurno));
+            if (log.isDebugEnabled()) {
+                log.debug("Row {}: Campus e turno em colunas separadas - Campus='{}', Turno='{}'",
+                        r.getRowNum(), campusName, turno);
+            }
+        }
+
+        // NOTA: TipoVaga será determinado automaticamente pela AlocacaoVagaService
+        // durante o processamento de alocação de vagas, com base na ordem de inscrição,
+        // situação (classificado/habilitado) e gênero do candidato.
+        // Durante o import, deixamos tipoVaga como null.
+
+        // o campus real (existente ou novo) é resolvido depois, na gravação; o
+        // mapeamento roda em paralelo e não acessa o banco
+        Campus campus = null;
+        if (campusName != null && !campusName.isBlank()) {
+            campus = new Campus();
+            campus.setNome(campusName);
+        }
+
+        Candidato c = new Candidato();
+        c.setNome(nome);
+        c.setCpf(cpf);
+        c.setGenero(genero);
+        c.setDataNascimento(dataNasc);
+        c.setCampus(campus);
+        c.setTurno(turno);
+        c.setDataInscricao(dataInscricao);
+        c.setHoraInscricao(horaInscricao);
+
+        // Converter string de situação para enum SituacaoCandidato
+        String situacaoStr = getCellString(r, colSituacao);
+        SituacaoCandidato situacao = converterStringSituacao(situacaoStr);
+        if (situacao == null) {
+            // não reconhecida: usa o padrão PENDENTE
+            relatorio.registrarFalha("situacao", linha(r), situacaoStr);
+            situacao = SituacaoCandidato.PENDENTE;
+        }
+        c.setSituacao(situacao);
+
+        // Atribuir motivo (se disponível)
+        String motivo = getCellString(r, colMotivo);
+        if (motivo != null && !motivo.isBlank()) {
+            c.setMotivoNaoClassificacao(motivo);
+        }
+
+        // TipoVaga será definido pela AlocacaoVagaService durante alocação de vagas
+
+        if (log.isDebugEnabled()) {
+            log.debug("Candidato mapeado: {} - Gênero: {} - Campus: {}", nome, genero, campusName);
+        }
+
+        return c;
+    }
+
+    /**
+     * Mantém apenas os dígitos 0-9 (equivalente a {@code replaceAll("\\D+", "")}),
+     * sem regex e sem copiar quando o valor já está limpo.
+     */
+    public static String somenteDigitos(String s) {
+        if (s == null) {
+            return null;
+        }
+        int n = s.length();
+        int i = 0;
+        while (i < n && isDigito(s.charAt(i))) {
+            i++;
+        }
+        if (i == n) {
+            return s;
+        }
+        char[] digitos = new char[n];
+        s.getChars(0, i, digitos, 0);
+        int len = i;
+        for (; i < n; i++) {
+            char ch = s.charAt(i);
+            if (isDigito(ch)) {
+                digitos[len++] = ch;
+            }
+        }
+        return new String(digitos, 0, len);
+    }
+
+    private static boolean isDigito(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static int indiceSeparadorCampusTurno(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            char ch = v.charAt(i);
+            if (ch == '-' || ch == '|' || ch == ',' || ch == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Preserva o turno exatamente como está no arquivo.
+     */
+    private static String normalizeTurno(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String s = raw.trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    /**
+     * Carimbo de data/hora da inscrição (célula de data ou texto ISO), ou null
+     * se a linha não tiver um válido. Barato o bastante para ser chamado antes
+     * do mapeamento, como faz a importação incremental.
+     */
+    public LocalDateTime inscricao(LinhaPlanilha r) {
+        if (colTimestamp == null) {
+            return null;
+        }
+        LinhaPlanilha.Celula tsCell = r.getCelula(colTimestamp);
+        if (tsCell == null) {
+            return null;
+        }
+        if (tsCell.isNumerica() && tsCell.isData()) {
+            return tsCell.getDataHora();
+        }
+        String s = tsCell.getTexto() != null ? tsCell.getTexto().trim() : "";
+        if (s.indexOf('T') > 0) {
+            try {
+                return LocalDateTime.parse(s);
+            } catch (Exception ignore) {
+            }
+        }
+        return null;
+    }
+
+    /** Número da linha como o Excel exibe (base 1). */
+    private static int linha(LinhaPlanilha r) {
+        return r.getRowNum() + 1;
+    }
+
+    /**
+     * Converte uma string (lida do arquivo Excel) para o enum SituacaoCandidato.
+     * Tenta encontrar a correspondência exata ou aproximada.
+     * Vazio vira PENDENTE; texto não reconhecido retorna null.
+     */
+    static SituacaoCandidato converterStringSituacao(String str) {
+        if (str == null || str.isBlank()) {
+            return SituacaoCandidato.PENDENTE;
+        }
+
+        String normalized = str.trim().toUpperCase();
+
+        // Busca exata pelos nomes dos enums
+        SituacaoCandidato exata = SITUACAO_POR_NOME.get(normalized);
+        if (exata != null) {
+            return exata;
+        }
+
+        // Busca aproximada pela descrição
+        for (SituacaoCandidato sit : SituacaoCandidato.values()) {
+            if (sit.getDescricao().equalsIgnoreCase(str)) {
+                return sit;
+            }
+        }
+
+        // Busca parcial
+        if (normalized.contains("CLASSIF")) {
+            return SituacaoCandidato.CLASSIFICADO;
+        } else if (normalized.contains("HABITL") || normalized.contains("HABILITAD")) {
+            return SituacaoCandidato.HABILITADO;
+        } else if (normalized.contains("RESERV")) {
+            return SituacaoCandidato.CADASTRO_RESERVA;
+        } else if (normalized.contains("ELIMIN")) {
+            return SituacaoCandidato.ELIMINADO;
+        }
+
+        return null;
+    }
+
+    private static String getCellString(LinhaPlanilha r, Integer idx) {
+        if (idx == null)
+            return null;
+        LinhaPlanilha.Celula c = r.getCelula(idx);
+        if (c == null)
+            return null;
+        return c.getTexto() != null ? c.getTexto().trim() : "";
+    }
+
+    private LocalDate getCellLocalDate(LinhaPlanilha r, Integer idx) {
+        if (idx == null)
+            return null;
+        LinhaPlanilha.Celula c = r.getCelula(idx);
+        if (c == null)
+            return null;
+        try {
+            return parseData(r, c);
+        } catch (Exception ex) {
+            relatorio.registrarFalha("dataNascimento", linha(r), c.getTexto());
+            return null;
+        }
+    }
+
+    private LocalDate parseData(LinhaPlanilha r, LinhaPlanilha.Celula c) {
+        // 1. Primeiro tenta como data numérica do Excel (formatada ou número serial)
+        if (c.isNumerica()) {
+            if (c.isData()) {
+                return c.getDataHora().toLocalDate();
+            }
+            return DateUtil.getLocalDateTime(c.getNumero()).toLocalDate();
+        }
+
+        // 2. Tenta como string - SEM TRANSFORMAÇÕES
+        String s = c.getTexto();
+        if (s == null || s.isBlank())
+            return null;
+        s = s.trim();
+
+        // 3. Formato ISO (yyyy-MM-dd). Só chama o parser quando o texto tem a
+        // forma "...-MM-dd"; do contrário ele falharia com exceção.
+        int n = s.length();
+        if (n >= 10 && s.charAt(n - 3) == '-' && s.charAt(n - 6) == '-') {
+            try {
+                return LocalDate.parse(s);
+            } catch (DateTimeException ignore) {
+            }
+        }
+
+        // 4. Formatos brasileiros (dd/MM/yyyy, dd.MM.yyyy, dd-MM-yyyy)
+        // SEM CORRIGIR ANOS COM 2 DÍGITOS - mantém como está no arquivo
+        int[] partes = new int[3];
+        for (String sep : new String[] { "/", ".", "-" }) {
+            if (dividirEmTres(s, sep, partes)) {
+                LocalDate result = dataSeValida(partes[2], partes[1], partes[0]);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+
+        // 5. Formato americano (MM/dd/yyyy), aceitando / ou - - SEM CORRIGIR ANOS
+        if (dividirEmTres(s, "/-", partes)) {
+            LocalDate result = dataSeValida(partes[2], partes[0], partes[1]);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        // Data não conseguiu ser parseada: candidato é importado com
+        // data_nascimento = null e a linha aparece no relatório
+        relatorio.registrarFalha("dataNascimento", linha(r), s);
+        return null;
+    }
+
+    private static LocalDate dataSeValida(int ano, int mes, int dia) {
+        if (dia < 1 || dia > 31 || mes < 1 || mes > 12) {
+            return null;
+        }
+        try {
+            return LocalDate.of(ano, mes, dia);
+        } catch (DateTimeException e) {
+            return null; // ex.: 31/02
+        }
+    }
+
+    /**
+     * Divide {@code s} em exatamente três inteiros separados por qualquer um dos
+     * caracteres de {@code separadores}, com a mesma semântica de
+     * {@code String.split} + {@code Integer.parseInt(parte.trim())}: partes
+     * vazias no final são descartadas e cada parte aceita sinal e espaços nas
+     * pontas.
+     */
+    static boolean dividirEmTres(String s, String separadores, int[] partes) {
+        int n = s.length();
+        // split descarta separadores finais (partes vazias no fim)
+        while (n > 0 && separadores.indexOf(s.charAt(n - 1)) >= 0) {
+            n--;
+        }
+        int parte = 0;
+        int inicio = 0;
+        for (int i = 0; i <= n; i++) {
+            if (i == n || separadores.indexOf(s.charAt(i)) >= 0) {
+                if (parte == 3) {
+                    return false;
+                }
+                long valor = parseInteiro(s, inicio, i);
+                if (valor == Long.MIN_VALUE) {
+                    return false;
+                }
+                partes[parte++] = (int) valor;
+                inicio = i + 1;
+            }
+        }
+        return parte == 3;
+    }
+
+    /** Integer.parseInt(s.substring(inicio, fim).trim()) sem alocar; Long.MIN_VALUE se inválido. */
+    private static long parseInteiro(String s, int inicio, int fim) {
+        while (inicio < fim && s.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && s.charAt(fim - 1) <= ' ') {
+            fim--;
+        }
+        if (inicio >= fim) {
+            return Long.MIN_VALUE;
+        }
+        boolean negativo = false;
+        char primeiro = s.charAt(inicio);
+        if (primeiro == '-' || primeiro == '+') {
+            negativo = primeiro == '-';
+            inicio++;
+            if (inicio == fim) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long valor = 0;
+        for (int i = inicio; i < fim; i++) {
+            int d = Character.digit(s.charAt(i), 10);
+            if (d < 0) {
+                return Long.MIN_VALUE;
+            }
+            valor = valor * 10 + d;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE || valor < Integer.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return valor;
+    }
+}
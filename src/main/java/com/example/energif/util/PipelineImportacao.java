@@ -0,0 +1,145 @@
+package com.example.energif.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Pipeline de importação em três estágios:
+ * <ol>
+ * <li>uma thread lê as linhas da planilha e as agrupa em blocos;</li>
+ * <li>um pool de threads mapeia cada bloco em paralelo;</li>
+ * <li>a thread que chamou {@link #executar} recebe os resultados, na ordem
+ * original das linhas, e faz toda a gravação sozinha.</li>
+ * </ol>
+ * A fila entre leitura e gravação é limitada, então a leitura espera quando a
+ * gravação fica para trás e a memória usada não cresce com o tamanho do arquivo.
+ * Resultados {@code null} do mapeamento são descartados.
+ */
+public class PipelineImportacao {
+
+    /** Fonte das linhas: entrega cada linha lida ao consumidor recebido. */
+    @FunctionalInterface
+    public interface Leitor {
+        void ler(Consumer<LinhaPlanilha> linhas) throws Exception;
+    }
+
+    private static final Future<List<Object>> FIM = CompletableFuture.completedFuture(null);
+
+    private final int threads;
+    private final int tamanhoBloco;
+
+    public PipelineImportacao(int threads, int tamanhoBloco) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.tamanhoBloco = Math.max(1, tamanhoBloco);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T> void executar(Leitor leitor, Function<LinhaPlanilha, T> mapear, Consumer<T> escritor)
+            throws Exception {
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService mapeadores = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "importacao-mapeamento-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // blocos em voo: o suficiente para manter todos os mapeadores ocupados
+        BlockingQueue<Future<List<T>>> fila = new ArrayBlockingQueue<>(threads * 2);
+        Throwable[] erroLeitura = new Throwable[1];
+
+        Thread leitura = new Thread(() -> {
+            try {
+                List<LinhaPlanilha> bloco = new ArrayList<>(tamanhoBloco);
+                leitor.ler(linha -> {
+                    bloco.add(linha);
+                    if (bloco.size() >= tamanhoBloco) {
+                        enfileirar(fila, mapeadores, new ArrayList<>(bloco), mapear);
+                        bloco.clear();
+                    }
+                });
+                if (!bloco.isEmpty()) {
+                    enfileirar(fila, mapeadores, bloco, mapear);
+                }
+            } catch (Throwable e) {
+                // inclusive Error (ex.: OutOfMemoryError), para não terminar a importação como se a planilha tivesse acabado
+                erroLeitura[0] = e;
+            } finally {
+                try {
+                    fila.put((Future) FIM);
+                } catch (InterruptedException ignore) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, Thread.currentThread().getName() + "-leitura");
+        leitura.setDaemon(true);
+        leitura.start();
+
+        try {
+            while (true) {
+                Future<List<T>> resultado = fila.take();
+                if (resultado == (Future) FIM) {
+                    break;
+                }
+                for (T item : aguardar(resultado)) {
+                    if (item != null) {
+                        escritor.accept(item);
+                    }
+                }
+            }
+            leitura.join();
+        } catch (Exception | Error e) {
+            // gravação falhou: interrompe a leitura (que pode estar parada na fila cheia)
+            leitura.interrupt();
+            fila.clear();
+            throw e;
+        } finally {
+            mapeadores.shutdownNow();
+        }
+        if (erroLeitura[0] instanceof Exception e) {
+            throw e;
+        }
+        if (erroLeitura[0] instanceof Error e) {
+            throw e;
+        }
+        if (erroLeitura[0] != null) {
+            throw new IllegalStateException("Falha na leitura da planilha", erroLeitura[0]);
+        }
+    }
+
+    private static <T> void enfileirar(BlockingQueue<Future<List<T>>> fila, ExecutorService mapeadores,
+            List<LinhaPlanilha> bloco, Function<LinhaPlanilha, T> mapear) {
+        Future<List<T>> resultado = mapeadores.submit(() -> {
+            List<T> mapeados = new ArrayList<>(bloco.size());
+            for (LinhaPlanilha linha : bloco) {
+                mapeados.add(mapear.apply(linha));
+            }
+            return mapeados;
+        });
+        try {
+            fila.put(resultado);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Leitura da planilha interrompida", e);
+        }
+    }
+
+    private static <T> List<T> aguardar(Future<List<T>> resultado) throws Exception {
+        try {
+            return resultado.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception ex) {
+                throw ex;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.energif.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contadores de andamento de uma importação de planilha.
+ *
+ * Atualizado pela thread que importa e lido a qualquer momento por quem
+ * acompanha o job, por isso os campos são atômicos/voláteis.
+ */
+public class ProgressoImportacao {
+
+    private final AtomicInteger lidas = new AtomicInteger();
+    private final AtomicInteger gravadas = new AtomicInteger();
+    private final AtomicInteger falhas = new AtomicInteger();
+    private final AtomicInteger atualizadas = new AtomicInteger();
+    private final AtomicInteger inalteradas = new AtomicInteger();
+    private final AtomicInteger ignoradas = new AtomicInteger();
+    private final RelatorioImportacao relatorio = new RelatorioImportacao();
+    private volatile int totalEstimado = -1;
+    private volatile long inicio;
+    private volatile long primeiraLinha;
+    private volatile long fim;
+
+    public void iniciar() {
+        inicio = System.currentTimeMillis();
+    }
+
+    public void finalizar() {
+        fim = System.currentTimeMillis();
+    }
+
+    public void linhaLida() {
+        if (lidas.incrementAndGet() == 1) {
+            primeiraLinha = System.currentTimeMillis();
+        }
+    }
+
+    public void gravadas(int quantidade) {
+        gravadas.addAndGet(quantidade);
+    }
+
+    public void falha() {
+        falhas.incrementAndGet();
+    }
+
+    /** Modo atualização: das gravadas, quantas já existiam e mudaram. */
+    public void atualizadas(int quantidade) {
+        atualizadas.addAndGet(quantidade);
+    }
+
+    /** Modo atualização: linhas iguais às já gravadas, que não foram regravadas. */
+    public void inalteradas(int quantidade) {
+        inalteradas.addAndGet(quantidade);
+    }
+
+    /** Importação incremental: linha lida mas descartada por ser anterior à marca. */
+    public void ignorada() {
+        ignoradas.incrementAndGet();
+    }
+
+    /** Quantidade de linhas de dados informada pela planilha (sem o cabeçalho). */
+    public void setTotalEstimado(int totalEstimado) {
+        this.totalEstimado = totalEstimado;
+    }
+
+    public RelatorioImportacao getRelatorio() {
+        return relatorio;
+    }
+
+    public int getLidas() {
+        return lidas.get();
+    }
+
+    public int getGravadas() {
+        return gravadas.get();
+    }
+
+    public int getFalhas() {
+        return falhas.get();
+    }
+
+    public int getAtualizadas() {
+        return atualizadas.get();
+    }
+
+    public int getInalteradas() {
+        return inalteradas.get();
+    }
+
+    public int getIgnoradas() {
+        return ignoradas.get();
+    }
+
+    /** -1 quando a planilha não informa suas dimensões. */
+    public int getTotalEstimado() {
+        return totalEstimado;
+    }
+
+    public long getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Linhas lidas por segundo, contadas a partir da primeira linha (abrir o
+     * arquivo e carregar as strings compartilhadas não entra na taxa).
+     */
+    public double getLinhasPorSegundo() {
+        long desde = primeiraLinha;
+        long decorrido = (fim > 0 ? fim : System.currentTimeMillis()) - desde;
+        if (desde == 0 || decorrido <= 0) {
+            return 0;
+        }
+        return lidas.get() * 1000.0 / decorrido;
+    }
+
+    /** Estimativa de segundos restantes, ou -1 se ainda não é possível calcular. */
+    public long getSegundosRestantes() {
+        double taxa = getLinhasPorSegundo();
+        int total = totalEstimado;
+        if (total < 0 || taxa <= 0) {
+            return -1;
+        }
+        return Math.max(0, Math.round((total - lidas.get()) / taxa));
+    }
+}
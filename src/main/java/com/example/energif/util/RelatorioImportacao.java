@@ -0,0 +1,102 @@
+package com.example.energif.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diagnóstico de uma importação: colunas detectadas no cabeçalho, falhas de
+ * conversão por coluna (com alguns valores de exemplo) e tempo gasto em cada
+ * etapa.
+ *
+ * Substitui os prints do cabeçalho e os logs por linha: registrar uma falha é
+ * só incrementar um contador, e tudo fica disponível no andamento do job.
+ * Pode ser alimentado por várias threads ao mesmo tempo.
+ */
+public class RelatorioImportacao {
+
+    /** Quantos valores inválidos guardar como exemplo, por coluna. */
+    private static final int MAX_AMOSTRAS = 5;
+
+    private final Map<String, String> colunas = new LinkedHashMap<>();
+    private final List<String> colunasAusentes = new ArrayList<>();
+    private final Map<String, Falhas> falhas = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> etapas = new ConcurrentHashMap<>();
+
+    /** Coluna do arquivo associada a um campo, e se o cabeçalho bateu exato ou por aproximação. */
+    public synchronized void registrarColuna(String campo, int indice, String cabecalho, boolean exata) {
+        colunas.put(campo, "coluna " + indice + " '" + cabecalho + "'" + (exata ? "" : " (aproximada)"));
+    }
+
+    /** Se o cabeçalho trouxe uma coluna para {@code campo}. */
+    public synchronized boolean possuiColuna(String campo) {
+        return colunas.containsKey(campo);
+    }
+
+    public synchronized void registrarColunaAusente(String campo) {
+        colunasAusentes.add(campo);
+    }
+
+    /** Valor de {@code campo} que não pôde ser convertido (a linha segue sendo importada). */
+    public void registrarFalha(String campo, int linha, String valor) {
+        falhas.computeIfAbsent(campo, k -> new Falhas()).registrar(linha, valor);
+    }
+
+    public void registrarTempo(String etapa, long nanos) {
+        etapas.computeIfAbsent(etapa, k -> new LongAdder()).add(nanos);
+    }
+
+    public int getTotalFalhas() {
+        int total = 0;
+        for (Falhas f : falhas.values()) {
+            total += f.quantidade.get();
+        }
+        return total;
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("colunas", new LinkedHashMap<>(colunas));
+        m.put("colunasAusentes", new ArrayList<>(colunasAusentes));
+        Map<String, Object> f = new LinkedHashMap<>();
+        falhas.forEach((campo, falha) -> f.put(campo, falha.toMap()));
+        m.put("falhasPorColuna", f);
+        Map<String, Long> t = new LinkedHashMap<>();
+        etapas.forEach((etapa, nanos) -> t.put(etapa, TimeUnit.NANOSECONDS.toMillis(nanos.sum())));
+        m.put("temposMs", t);
+        return m;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private static final class Falhas {
+
+        private final AtomicInteger quantidade = new AtomicInteger();
+        private final List<String> amostras = new ArrayList<>(MAX_AMOSTRAS);
+
+        void registrar(int linha, String valor) {
+            if (quantidade.incrementAndGet() <= MAX_AMOSTRAS) {
+                synchronized (amostras) {
+                    amostras.add("linha " + linha + ": '" + valor + "'");
+                }
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("quantidade", quantidade.get());
+            synchronized (amostras) {
+                m.put("exemplos", new ArrayList<>(amostras));
+            }
+            return m;
+        }
+    }
+}
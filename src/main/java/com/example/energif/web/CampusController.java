@@ -2,7 +2,6 @@ package com.example.energif.web;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +21,7 @@ import com.example.energif.model.Campus;
 import com.example.energif.model.CampusEditalTurno;
 import com.example.energif.repository.CampusRepository;
 import com.example.energif.repository.CampusEditalTurnoRepository;
+import com.example.energif.service.DadosReferenciaService;
 
 @Controller
 @RequestMapping("/campus")
@@ -32,13 +32,16 @@ public class CampusController {
     private final CampusRepository campusRepository;
     private final com.example.energif.repository.CampusEditalRepository campusEditalRepository;
     private final CampusEditalTurnoRepository campusEditalTurnoRepository;
+    private final DadosReferenciaService dadosReferenciaService;
 
     public CampusController(CampusRepository campusRepository,
             com.example.energif.repository.CampusEditalRepository campusEditalRepository,
-            CampusEditalTurnoRepository campusEditalTurnoRepository) {
+            CampusEditalTurnoRepository campusEditalTurnoRepository,
+            DadosReferenciaService dadosReferenciaService) {
         this.campusRepository = campusRepository;
         this.campusEditalRepository = campusEditalRepository;
         this.campusEditalTurnoRepository = campusEditalTurnoRepository;
+        this.dadosReferenciaService = dadosReferenciaService;
     }
 
     @GetMapping("/novo")
@@ -52,44 +55,35 @@ public class CampusController {
     // Agora busca CampusEditalTurno para exibir linhas separadas por turno
     @GetMapping("/list")
     public String listarCampus(Model model) {
-        var turnos = campusEditalRepository.findAll()
+        // um único SELECT com campus e edital, já ordenado por campus, edital e turno
+        var turnos = campusEditalTurnoRepository.findQuadroVagas()
                 .stream()
-                .flatMap(ce -> java.util.Optional.ofNullable(ce.getTurnos()).orElse(java.util.Collections.emptyList())
-                        .stream()
-                        .map(t -> Map.ofEntries(
-                                Map.entry("id", t.getId()),
-                                Map.entry("campusId", ce.getCampus().getId()),
-                                Map.entry("campusNome", ce.getCampus().getNome()),
-                                Map.entry("editalId", ce.getEdital() != null ? ce.getEdital().getId() : null),
-                                Map.entry("editalDescricao",
-                                        ce.getEdital() != null && ce.getEdital().getDescricao() != null
-                                                ? ce.getEdital().getDescricao()
-                                                : "Sem Edital"),
-                                Map.entry("turno", t.getTurno()),
-                                Map.entry("numeroVagasReservadas", t.getNumeroVagasReservadas()),
-                                Map.entry("numeroVagasAmplaConcorrencia", t.getNumeroVagasAmplaConcorrencia()),
-                                Map.entry("numeroVagasClassificado", t.getNumeroVagasClassificado()),
-                                Map.entry("numeroVagasHabilitado", t.getNumeroVagasHabilitado()),
-                                Map.entry("numeroVagasCadastroReserva", t.getNumeroVagasCadastroReserva()),
-                                Map.entry("vagasReservadasOcupadas", t.getVagasReservadasOcupadas()),
-                                Map.entry("vagasAmplaOcupadas", t.getVagasAmplaOcupadas()),
-                                Map.entry("vagasClassificadoOcupadas", t.getVagasClassificadoOcupadas()),
-                                Map.entry("vagasHabilitadoOcupadas", t.getVagasHabilitadoOcupadas()),
-                                Map.entry("vagasReservadasDisponiveis", t.getVagasReservadasDisponiveis()),
-                                Map.entry("vagasAmplaDisponiveis", t.getVagasAmplaDisponiveis()),
-                                Map.entry("vagasClassificadoDisponiveis", t.getVagasClassificadoDisponiveis()),
-                                Map.entry("vagasHabilitadoDisponiveis", t.getVagasHabilitadoDisponiveis()),
-                                Map.entry("campusEditalTurnoId", t.getId()))))
-                .sorted((a, b) -> {
-                    int cmpCampus = Objects.toString(a.get("campusNome"), "")
-                            .compareTo(Objects.toString(b.get("campusNome"), ""));
-                    if (cmpCampus != 0)
-                        return cmpCampus;
-                    int cmpEdital = Objects.toString(a.get("editalDescricao"), "")
-                            .compareTo(Objects.toString(b.get("editalDescricao"), ""));
-                    if (cmpEdital != 0)
-                        return cmpEdital;
-                    return Objects.toString(a.get("turno"), "").compareTo(Objects.toString(b.get("turno"), ""));
+                .map(t -> {
+                    var ce = t.getCampusEdital();
+                    return Map.ofEntries(
+                            Map.entry("id", t.getId()),
+                            Map.entry("campusId", ce.getCampus().getId()),
+                            Map.entry("campusNome", ce.getCampus().getNome()),
+                            Map.entry("editalId", ce.getEdital() != null ? ce.getEdital().getId() : null),
+                            Map.entry("editalDescricao",
+                                    ce.getEdital() != null && ce.getEdital().getDescricao() != null
+                                            ? ce.getEdital().getDescricao()
+                                            : "Sem Edital"),
+                            Map.entry("turno", t.getTurno()),
+                            Map.entry("numeroVagasReservadas", t.getNumeroVagasReservadas()),
+                            Map.entry("numeroVagasAmplaConcorrencia", t.getNumeroVagasAmplaConcorrencia()),
+                            Map.entry("numeroVagasClassificado", t.getNumeroVagasClassificado()),
+                            Map.entry("numeroVagasHabilitado", t.getNumeroVagasHabilitado()),
+                            Map.entry("numeroVagasCadastroReserva", t.getNumeroVagasCadastroReserva()),
+                            Map.entry("vagasReservadasOcupadas", t.getVagasReservadasOcupadas()),
+                            Map.entry("vagasAmplaOcupadas", t.getVagasAmplaOcupadas()),
+                            Map.entry("vagasClassificadoOcupadas", t.getVagasClassificadoOcupadas()),
+                            Map.entry("vagasHabilitadoOcupadas", t.getVagasHabilitadoOcupadas()),
+                            Map.entry("vagasReservadasDisponiveis", t.getVagasReservadasDisponiveis()),
+                            Map.entry("vagasAmplaDisponiveis", t.getVagasAmplaDisponiveis()),
+                            Map.entry("vagasClassificadoDisponiveis", t.getVagasClassificadoDisponiveis()),
+                            Map.entry("vagasHabilitadoDisponiveis", t.getVagasHabilitadoDisponiveis()),
+                            Map.entry("campusEditalTurnoId", t.getId()));
                 })
                 .toList();
 
@@ -110,9 +104,11 @@ public class CampusController {
             existing.setNumeroVagasClassificado(campus.getNumeroVagasClassificado());
             existing.setNumeroVagasHabilitado(campus.getNumeroVagasHabilitado());
             campusRepository.save(existing);
+            dadosReferenciaService.campiAlterados();
             return "redirect:/campus/novo?updated";
         }
         campusRepository.save(campus);
+        dadosReferenciaService.campiAlterados();
         return "redirect:/campus/novo?success";
     }
 
@@ -177,6 +173,7 @@ public class CampusController {
                 campus.setNumeroVagasClassificado(numeroVagasClassificado);
                 campus.setNumeroVagasHabilitado(numeroVagasHabilitado);
                 Campus campusSalvo = campusRepository.save(campus);
+                dadosReferenciaService.campiAlterados();
 
                 // Retornar os dados atualizados
                 Map<String, Object> campusData = new HashMap<>();
@@ -254,6 +251,7 @@ public class CampusController {
                 }
 
                 campusRepository.deleteById(id);
+                dadosReferenciaService.campiAlterados();
                 return ResponseEntity.ok(Map.of("success", true));
             }
         } catch (Exception e) {
@@ -23,15 +23,18 @@ public class CampusEditalTurnoController {
     private final CampusEditalRepository campusEditalRepository;
     private final CampusRepository campusRepository;
     private final EditalRepository editalRepository;
+    private final com.example.energif.service.AlocacaoVagaService alocacaoVagaService;
 
     public CampusEditalTurnoController(CampusEditalTurnoRepository turnoRepository,
                                        CampusEditalRepository campusEditalRepository,
                                        CampusRepository campusRepository,
-                                       EditalRepository editalRepository) {
+                                       EditalRepository editalRepository,
+                                       com.example.energif.service.AlocacaoVagaService alocacaoVagaService) {
         this.turnoRepository = turnoRepository;
         this.campusEditalRepository = campusEditalRepository;
         this.campusRepository = campusRepository;
         this.editalRepository = editalRepository;
+        this.alocacaoVagaService = alocacaoVagaService;
     }
 
     @GetMapping("/list")
@@ -39,22 +42,8 @@ public class CampusEditalTurnoController {
                        @RequestParam(name = "campusId", required = false) Long campusId,
                        Model model) {
         
-        List<CampusEdital> campusEditais;
-        if (editalId != null && campusId != null) {
-            campusEditais = campusEditalRepository.findAllByEditalIdAndCampusId(editalId, campusId);
-        } else if (editalId != null) {
-            campusEditais = campusEditalRepository.findAllByEditalId(editalId);
-        } else if (campusId != null) {
-            campusEditais = campusEditalRepository.findAllByCampusId(campusId);
-        } else {
-            campusEditais = campusEditalRepository.findAll(Sort.by("edital.id", "campus.nome"));
-        }
-
-        // Enriquecer cada CampusEdital com seus turnos
-        campusEditais.forEach(ce -> {
-            List<CampusEditalTurno> turnos = turnoRepository.findByCampusEditalId(ce.getId());
-            ce.setTurnos(turnos);
-        });
+        // CampusEdital com campus, edital e turnos em uma única consulta
+        List<CampusEdital> campusEditais = campusEditalRepository.findAllComTurnos(editalId, campusId);
 
         model.addAttribute("campusEditais", campusEditais);
         model.addAttribute("campuses", campusRepository.findAll(Sort.by("nome")));
@@ -160,6 +149,46 @@ public class CampusEditalTurnoController {
         }
     }
 
+    // Refaz a alocação de vagas de todos os campi/turnos do edital
+    @PostMapping("/alocar")
+    @ResponseBody
+    public org.springframework.http.ResponseEntity<Map<String, Object>> alocarEdital(@RequestParam Long editalId) {
+        if (!editalRepository.existsById(editalId)) {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body(Map.of("sucesso", false, "mensagem", "Edital não encontrado"));
+        }
+        com.example.energif.service.AlocacaoVagaService.ResultadoAlocacaoEdital r = alocacaoVagaService.alocarEdital(editalId);
+        String mensagem = "Alocação concluída: " + r.candidatos() + " candidatos em " + r.turnos() + " turnos, "
+                + r.alterados() + " alterados";
+        if (r.semVagasConfiguradas() > 0) {
+            mensagem += " (" + r.semVagasConfiguradas() + " sem vagas configuradas para o seu turno)";
+        }
+        return org.springframework.http.ResponseEntity.ok(Map.of(
+                "sucesso", true,
+                "mensagem", mensagem,
+                "candidatos", r.candidatos(),
+                "alterados", r.alterados(),
+                "turnos", r.turnos(),
+                "semVagasConfiguradas", r.semVagasConfiguradas()));
+    }
+
+    // Simula a alocação do edital com vagas ajustadas, sem gravar nada
+    @PostMapping("/simular")
+    @ResponseBody
+    public org.springframework.http.ResponseEntity<?> simularAlocacao(@RequestParam Long editalId,
+            @RequestBody(required = false) List<com.example.energif.service.AlocacaoVagaService.AjusteVagas> ajustes) {
+        if (!editalRepository.existsById(editalId)) {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body(Map.of("sucesso", false, "mensagem", "Edital não encontrado"));
+        }
+        try {
+            return org.springframework.http.ResponseEntity.ok(alocacaoVagaService.simular(editalId, ajustes));
+        } catch (IllegalArgumentException e) {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body(Map.of("sucesso", false, "mensagem", e.getMessage()));
+        }
+    }
+
     private String redirect(HttpServletRequest request, Long ceId) {
         String referer = request.getHeader("Referer");
         if (referer != null && !referer.isEmpty()) {
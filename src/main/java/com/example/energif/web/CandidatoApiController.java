@@ -0,0 +1,118 @@
+package com.example.energif.web;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.energif.service.CandidatoListagemService;
+import com.example.energif.service.CandidatoListagemService.Filtros;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pesquisa de candidatos em JSON, com os mesmos filtros da tela de candidatos
+ * (mais o edital), para integrações que hoje leem o HTML da listagem.
+ *
+ * {@code GET /api/candidatos} devolve uma página por cursor: o campo
+ * {@code proximoCursor} vai no parâmetro {@code cursor} da próxima chamada e
+ * é null na última página.
+ *
+ * {@code GET /api/candidatos/stream} devolve todos os candidatos filtrados em
+ * NDJSON (um objeto JSON por linha), lidos do banco por cursor e escritos à
+ * medida que chegam, sem montar a lista em memória.
+ */
+@RestController
+@RequestMapping("/api/candidatos")
+public class CandidatoApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandidatoApiController.class);
+
+    private static final int TAMANHO_MAXIMO = 500;
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final CandidatoListagemService candidatoListagemService;
+    private final ObjectMapper objectMapper;
+
+    public CandidatoApiController(CandidatoListagemService candidatoListagemService, ObjectMapper objectMapper) {
+        this.candidatoListagemService = candidatoListagemService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> pesquisar(
+            @RequestParam(name = "order", required = false, defaultValue = "oldest") String order,
+            @RequestParam(name = "q", required = false) String q,
+            @RequestParam(name = "editalId", required = false) Long editalId,
+            @RequestParam(name = "campusId", required = false) Long campusId,
+            @RequestParam(name = "genero", required = false) String genero,
+            @RequestParam(name = "idade", required = false) String idade,
+            @RequestParam(name = "situacao", required = false) String situacao,
+            @RequestParam(name = "turno", required = false) String turno,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false, defaultValue = "100") int size) {
+        Filtros filtros = filtros(q, editalId, campusId, genero, idade, situacao, turno);
+        int tamanho = Math.max(1, Math.min(size, TAMANHO_MAXIMO));
+        CandidatoListagemService.PaginaCursor pagina;
+        try {
+            pagina = candidatoListagemService.listar(filtros, "oldest".equalsIgnoreCase(order), cursor, tamanho);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("sucesso", false, "mensagem", "Cursor inválido"));
+        }
+        // LinkedHashMap: proximoCursor pode ser null
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("candidatos", pagina.candidatos().getContent());
+        resposta.put("quantidade", pagina.candidatos().getNumberOfElements());
+        resposta.put("proximoCursor", pagina.proximo());
+        return ResponseEntity.ok(resposta);
+    }
+
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(name = "q", required = false) String q,
+            @RequestParam(name = "editalId", required = false) Long editalId,
+            @RequestParam(name = "campusId", required = false) Long campusId,
+            @RequestParam(name = "genero", required = false) String genero,
+            @RequestParam(name = "idade", required = false) String idade,
+            @RequestParam(name = "situacao", required = false) String situacao,
+            @RequestParam(name = "turno", required = false) String turno) {
+        Filtros filtros = filtros(q, editalId, campusId, genero, idade, situacao, turno);
+        StreamingResponseBody corpo = saida -> {
+            OutputStream out = new BufferedOutputStream(saida, 1 << 16);
+            long total = candidatoListagemService.percorrer(filtros, c -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(c));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            logger.info("Exportação NDJSON de candidatos: {} linhas ({})", total, filtros);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(corpo);
+    }
+
+    // mesma normalização da tela de candidatos (CandidatoController.listAll)
+    private static Filtros filtros(String q, Long editalId, Long campusId, String genero, String idade,
+            String situacao, String turno) {
+        String qParam = (q != null && !q.isBlank()) ? q.trim().toLowerCase() : null;
+        Character generoChar = (genero != null && !genero.isBlank()) ? genero.trim().toUpperCase().charAt(0) : null;
+        String idadeNorm = (idade != null && !idade.isBlank()) ? idade.trim() : null;
+        String situacaoFilter = (situacao != null && !situacao.isBlank()) ? situacao.trim() : null;
+        String turnoNorm = (turno != null && !turno.isBlank()) ? turno.trim() : null;
+        return new Filtros(qParam, editalId, campusId, generoChar, idadeNorm, situacaoFilter, turnoNorm);
+    }
+}
@@ -23,7 +23,6 @@ import com.example.energif.model.Campus;
 import com.example.energif.model.Candidato;
 import com.example.energif.model.Edital;
 import com.example.energif.model.SituacaoCandidato;
-import com.example.energif.model.TipoVaga;
 import com.example.energif.repository.CampusRepository;
 import com.example.energif.repository.CandidatoRepository;
 import com.example.energif.util.Filtro;
@@ -39,27 +38,39 @@ public class CandidatoController {
     private final CandidatoRepository candidatoRepository;
     private final CampusRepository campusRepository;
     private final com.example.energif.repository.CampusEditalRepository campusEditalRepository;
-    private final com.example.energif.repository.CampusEditalTurnoRepository campusEditalTurnoRepository;
     private final Filtro filtro;
     private final com.example.energif.service.CandidatoService candidatoService;
     private final com.example.energif.repository.MotivoRepository motivoRepository;
     private final com.example.energif.service.RelatorioService relatorioService;
+    private final com.example.energif.service.ImportacaoJobService importacaoJobService;
+    private final com.example.energif.service.CandidatoListagemService candidatoListagemService;
+    private final com.example.energif.service.DadosReferenciaService dadosReferenciaService;
+    private final com.example.energif.service.ExportacaoCandidatoService exportacaoCandidatoService;
+    private final com.example.energif.service.RealocacaoVagaService realocacaoVagaService;
 
     public CandidatoController(CandidatoRepository candidatoRepository, CampusRepository campusRepository,
             com.example.energif.repository.CampusEditalRepository campusEditalRepository,
-            com.example.energif.repository.CampusEditalTurnoRepository campusEditalTurnoRepository,
             Filtro filtro,
             com.example.energif.service.CandidatoService candidatoService,
             com.example.energif.repository.MotivoRepository motivoRepository,
-            com.example.energif.service.RelatorioService relatorioService) {
+            com.example.energif.service.RelatorioService relatorioService,
+            com.example.energif.service.ImportacaoJobService importacaoJobService,
+            com.example.energif.service.CandidatoListagemService candidatoListagemService,
+            com.example.energif.service.DadosReferenciaService dadosReferenciaService,
+            com.example.energif.service.ExportacaoCandidatoService exportacaoCandidatoService,
+            com.example.energif.service.RealocacaoVagaService realocacaoVagaService) {
         this.candidatoRepository = candidatoRepository;
         this.campusRepository = campusRepository;
         this.campusEditalRepository = campusEditalRepository;
-        this.campusEditalTurnoRepository = campusEditalTurnoRepository;
         this.filtro = filtro;
         this.candidatoService = candidatoService;
         this.motivoRepository = motivoRepository;
         this.relatorioService = relatorioService;
+        this.importacaoJobService = importacaoJobService;
+        this.candidatoListagemService = candidatoListagemService;
+        this.dadosReferenciaService = dadosReferenciaService;
+        this.exportacaoCandidatoService = exportacaoCandidatoService;
+        this.realocacaoVagaService = realocacaoVagaService;
     }
 
     // Return list of duplicate CPFs and their counts as JSON
@@ -89,7 +100,7 @@ public class CandidatoController {
     public String novoForm(Model model) {
         model.addAttribute("candidato", new Candidato());
         // provide list of campuses for selection in the form
-        model.addAttribute("campuses", campusRepository.findAll());
+        model.addAttribute("campuses", dadosReferenciaService.campi());
         return "cadastro-candidato";
     }
 
@@ -111,8 +122,13 @@ public class CandidatoController {
             @RequestParam(name = "turno", required = false) String turno, // Parâmetro recebido
             @RequestParam(name = "page", required = false, defaultValue = "0") int page,
             @RequestParam(name = "size", required = false, defaultValue = "20") int size,
+            @RequestParam(name = "paginacao", required = false) String paginacao,
+            @RequestParam(name = "cursor", required = false) String cursor,
             Model model) {
 
+        // paginacao=cursor: navegação por cursor, sem OFFSET nem contagem (CandidatoListagemService)
+        boolean porCursor = "cursor".equalsIgnoreCase(paginacao) || (cursor != null && !cursor.isBlank());
+
         // normalize incoming filter params: treat empty strings as null
         String generoNorm = (genero != null && !genero.isBlank()) ? genero.trim().toUpperCase() : null;
         Character generoChar = (generoNorm != null && !generoNorm.isEmpty()) ? generoNorm.charAt(0) : null;
@@ -133,47 +149,39 @@ public class CandidatoController {
                 "Candidatos list request - order={}, q={}, campusId={}, genero={}, idade={}, situacao={}, turno={}, page={}, size={} → usingFilters={}",
                 order, q, campusId, generoChar, idadeNorm, situacaoFilter, turnoNorm, page, size, usingFilters);
 
-        org.springframework.data.domain.Sort sort;
-        if (usingFilters) {
-            // native query expects DB column names for ORDER BY
-            if ("oldest".equalsIgnoreCase(order)) {
-                sort = org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.ASC,
-                        "data_inscricao", "hora_inscricao");
-            } else {
-                sort = org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
-                        "data_inscricao", "hora_inscricao");
-            }
-        } else {
-            // JPA property names for non-native repository methods
-            if ("oldest".equalsIgnoreCase(order)) {
-                sort = org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.ASC,
-                        "dataInscricao", "horaInscricao");
-            } else {
-                sort = org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
-                        "dataInscricao", "horaInscricao");
-            }
-        }
-
-        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size,
-                sort);
-        // defensive: ensure page is not negative (prevents IllegalArgumentException
-        // when PageRequest.of is called)
+        // defensive: ensure page is not negative
         if (page < 0) {
             logger.warn("Received negative page index ({}). Clamping to 0.", page);
             page = 0;
-            pageable = org.springframework.data.domain.PageRequest.of(page, size, sort);
         }
-        org.springframework.data.domain.Page<com.example.energif.model.Candidato> pageResult;
         // Prepare a lowercase trimmed q for queries that compare with lower(...)
         String qParam = (q != null && !q.isBlank()) ? q.trim().toLowerCase() : null;
+        var filtros = new com.example.energif.service.CandidatoListagemService.Filtros(qParam, campusId,
+                generoChar, idadeNorm, situacaoFilter, turnoNorm);
+        boolean maisAntigos = "oldest".equalsIgnoreCase(order);
+
+        org.springframework.data.domain.Page<com.example.energif.repository.CandidatoResumo> pageResult = null;
+        org.springframework.data.domain.Slice<com.example.energif.repository.CandidatoResumo> sliceResult = null;
+        String proximoCursor = null;
+        // Estatísticas dinâmicas por situação (respeitando os filtros aplicados na listagem)
+        Map<String, Long> porSituacao;
 
-        if (usingFilters) {
-            // MUDANÇA: Passando o novo parâmetro 'turnoNorm' e situacaoFilter em vez de
-            // habilitadoFilter
-            pageResult = candidatoRepository.searchCombined(qParam, campusId, generoChar, idadeNorm, situacaoFilter,
-                    turnoNorm, pageable);
+        if (porCursor) {
+            com.example.energif.service.CandidatoListagemService.PaginaCursor pagina;
+            try {
+                pagina = candidatoListagemService.listar(filtros, maisAntigos, cursor, size);
+            } catch (IllegalArgumentException ex) {
+                logger.warn("Cursor inválido na listagem, voltando ao início: {}", cursor);
+                pagina = candidatoListagemService.listar(filtros, maisAntigos, null, size);
+            }
+            sliceResult = pagina.candidatos();
+            proximoCursor = pagina.proximo();
+            porSituacao = candidatoListagemService.contarPorSituacao(filtros);
         } else {
-            pageResult = candidatoRepository.findAll(pageable);
+            // página, total e contagem por situação em um único comando
+            var pagina = candidatoListagemService.listarPagina(filtros, maisAntigos, page, size);
+            pageResult = pagina.candidatos();
+            porSituacao = pagina.porSituacao();
         }
 
         model.addAttribute("selectedOrder", order);
@@ -183,52 +191,20 @@ public class CandidatoController {
         model.addAttribute("selectedIdade", idadeNorm);
         model.addAttribute("selectedSituacao", situacaoFilter);
         model.addAttribute("selectedTurno", turnoNorm); // MUDANÇA: Adicionando o valor normalizado ao modelo
-        model.addAttribute("campuses", campusRepository.findAll());
-        model.addAttribute("motivos", motivoRepository.findAll());
+        model.addAttribute("campuses", dadosReferenciaService.campi());
+        model.addAttribute("motivos", dadosReferenciaService.motivos());
         // provide list of distinct turnos for report/filter
         try {
-            model.addAttribute("turnos", candidatoRepository.findDistinctTurno());
+            model.addAttribute("turnos", dadosReferenciaService.turnos());
         } catch (Exception ex) {
             model.addAttribute("turnos", java.util.List.of());
         }
-        // Estatísticas dinâmicas por situação (respeitando os filtros aplicados na listagem)
-        long totalPendentes = 0L;
-        long totalClassificados = 0L;
-        long totalHabilitados = 0L;
-        long totalEliminados = 0L;
-        long totalCadastroReserva = 0L;
-
-        try {
-            List<Object[]> situacaoCounts = candidatoRepository.countSituacaoByFilters(
-                    qParam,
-                    campusId,
-                    generoChar,
-                    idadeNorm,
-                    situacaoFilter,
-                    turnoNorm);
-
-            for (Object[] row : situacaoCounts) {
-                if (row == null || row.length < 2 || row[0] == null || row[1] == null) {
-                    continue;
-                }
-
-                String situacaoNome = String.valueOf(row[0]).trim().toUpperCase();
-                long total = (row[1] instanceof Number) ? ((Number) row[1]).longValue()
-                        : Long.parseLong(String.valueOf(row[1]));
-
-                switch (situacaoNome) {
-                    case "PENDENTE" -> totalPendentes = total;
-                    case "CLASSIFICADO" -> totalClassificados = total;
-                    case "HABILITADO" -> totalHabilitados = total;
-                    case "ELIMINADO" -> totalEliminados = total;
-                    case "CADASTRO_RESERVA" -> totalCadastroReserva = total;
-                    default -> {
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            logger.warn("Falha ao calcular estatísticas filtradas. Mantendo contadores zerados.", ex);
-        }
+        long totalPendentes = porSituacao.getOrDefault("PENDENTE", 0L);
+        long totalClassificados = porSituacao.getOrDefault("CLASSIFICADO", 0L);
+        long totalHabilitados = porSituacao.getOrDefault("HABILITADO", 0L);
+        long totalEliminados = porSituacao.getOrDefault("ELIMINADO", 0L);
+        long totalCadastroReserva = porSituacao.getOrDefault("CADASTRO_RESERVA", 0L);
+        long totalFiltrado = porSituacao.values().stream().mapToLong(Long::longValue).sum();
 
         model.addAttribute("totalPendentes", totalPendentes);
         model.addAttribute("totalClassificados", totalClassificados);
@@ -236,8 +212,19 @@ public class CandidatoController {
         model.addAttribute("totalEliminados", totalEliminados);
         model.addAttribute("totalCadastroReserva", totalCadastroReserva);
 
-        model.addAttribute("candidatosPage", pageResult);
-        model.addAttribute("candidatos", pageResult.getContent());
+        if (porCursor) {
+            // sem contagem própria: o total é a soma das situações, que já respeita os filtros
+            model.addAttribute("candidatosPage", sliceResult);
+            model.addAttribute("candidatos", sliceResult.getContent());
+            model.addAttribute("totalCandidatos", totalFiltrado);
+        } else {
+            model.addAttribute("candidatosPage", pageResult);
+            model.addAttribute("candidatos", pageResult.getContent());
+            model.addAttribute("totalCandidatos", pageResult.getTotalElements());
+        }
+        model.addAttribute("paginacaoCursor", porCursor);
+        model.addAttribute("cursorAtual", porCursor ? cursor : null);
+        model.addAttribute("proximoCursor", proximoCursor);
         model.addAttribute("currentPage", page);
         model.addAttribute("pageSize", size);
         return "list";
@@ -274,6 +261,9 @@ public class CandidatoController {
     @PostMapping("/import")
     public String importXlsx(@RequestPart("file") MultipartFile file,
             @RequestParam(name = "editalDescricao", required = false) String editalDescricao,
+            @RequestParam(name = "cargaRapida", required = false, defaultValue = "false") boolean cargaRapida,
+            @RequestParam(name = "atualizar", required = false, defaultValue = "false") boolean atualizar,
+            @RequestParam(name = "incremental", required = false, defaultValue = "false") boolean incremental,
             Model model) {
         if (file == null || file.isEmpty()) {
             return "redirect:/candidatos/list?order=oldest&error=empty";
@@ -285,13 +275,19 @@ public class CandidatoController {
                 java.nio.file.Files.copy(in, tmp, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
             }
             logger.info("Uploaded file saved to {}", tmp);
-            // invoke Filtro importer to parse and import rows
+            // a importação roda em segundo plano; a lista acompanha o job pelo id
             try {
-                int imported = filtro.importarXlsx(tmp.toFile(), editalDescricao);
-                return "redirect:/candidatos/list?order=oldest&import=ok&count=" + imported;
-            } catch (Exception ex) {
-                logger.error("Erro ao importar xlsx", ex);
-                return "redirect:/candidatos/list?order=oldest&import=error";
+                // atualizar prevalece, depois incremental: a carga rápida só sabe inserir tudo
+                var modo = atualizar ? com.example.energif.service.ImportacaoJobService.Modo.ATUALIZACAO
+                        : incremental ? com.example.energif.service.ImportacaoJobService.Modo.INCREMENTAL
+                                : cargaRapida ? com.example.energif.service.ImportacaoJobService.Modo.CARGA_RAPIDA
+                                        : com.example.energif.service.ImportacaoJobService.Modo.PADRAO;
+                var job = importacaoJobService.submeter(tmp.toFile(), file.getOriginalFilename(), editalDescricao,
+                        modo);
+                return "redirect:/candidatos/list?order=oldest&importJob=" + job.getId();
+            } catch (java.util.concurrent.RejectedExecutionException ex) {
+                logger.warn("Fila de importações cheia, upload recusado");
+                return "redirect:/candidatos/list?order=oldest&import=busy";
             }
         } catch (Exception e) {
             logger.error("Erro ao receber arquivo de importacao", e);
@@ -299,6 +295,19 @@ public class CandidatoController {
         }
     }
 
+    @GetMapping("/import/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> progressoImportacao(@PathVariable("jobId") String jobId) {
+        var job = importacaoJobService.buscar(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of(
+                "sucesso", false,
+                "mensagem", "Importação não encontrada"
+            ));
+        }
+        return ResponseEntity.ok(job.toMap());
+    }
+
     @PostMapping("/{id}/deletar")
     @ResponseBody
     public ResponseEntity<?> deletarCandidato(@PathVariable("id") Long id) {
@@ -338,6 +347,7 @@ public class CandidatoController {
         } catch (Exception ex) {
             logger.error("Erro ao apagar campi: {}", ex.getMessage());
         }
+        dadosReferenciaService.candidatosAlterados();
         return "redirect:/candidatos/list?deleted=all";
     }
 
@@ -389,57 +399,36 @@ public class CandidatoController {
                 if (campus == null)
                     return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Candidato não possui campus definido"));
                 
-                // Buscar vagas no CampusEditalTurno (novo sistema)
                 Edital edital = cand.getEdital();
                 if (edital == null) {
                     return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Candidato não possui edital definido"));
                 }
                 
-                com.example.energif.model.CampusEdital campusEdital = campusEditalRepository.findByCampusAndEdital(campus, edital);
-                if (campusEdital == null) {
-                    return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "CampusEdital não encontrado para este candidato"));
-                }
-                
-                // Buscar CampusEditalTurno pelo turno do candidato
                 String turno = cand.getTurno() != null ? cand.getTurno() : "UNICO";
-                com.example.energif.model.CampusEditalTurno turnoVagas = campusEditalTurnoRepository.findByCampusEditalAndTurno(campusEdital, turno);
-                
-                if (turnoVagas == null) {
+                // Ocupa a vaga de Classificado do gênero: livre, ou a do último titular
+                // se o candidato se inscreveu antes dele (o titular desce um nível)
+                var realocacao = realocacaoVagaService.entrar(cand.getId(), SituacaoCandidato.CLASSIFICADO);
+                if (realocacao.semTurno()) {
                     return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Nenhuma vaga configurada para o turno '" + turno + "'"));
                 }
-                
-                // Validar se existe vaga de Classificado disponível
-                int vagasDisponiveisClassificado = turnoVagas.getVagasClassificadoDisponiveis();
-                if (vagasDisponiveisClassificado <= 0) {
+                if (!realocacao.colocado()) {
                     resultado = Map.of(
                             "sucesso", false,
                             "mensagem", "Não há vagas de Classificado disponíveis no campus " + campus.getNome() + " para o turno " + turno,
                             "campusNome", campus.getNome(),
                             "turno", turno,
-                            "vagasDisponiveis", vagasDisponiveisClassificado);
+                            "vagasDisponiveis", 0);
                     return ResponseEntity.ok(resultado);
                 }
 
-                // Consumir uma vaga de Classificado (baseado no gênero do candidato)
-                Character genero = cand.getGenero();
-                if (com.example.energif.model.Genero.FEMININO.getCodigo().equals(genero)) {
-                    turnoVagas.setVagasClassificadoFemininoOcupadas(turnoVagas.getVagasClassificadoFemininoOcupadas() + 1);
-                } else {
-                    turnoVagas.setVagasClassificadoMasculinoOcupadas(turnoVagas.getVagasClassificadoMasculinoOcupadas() + 1);
-                }
-                campusEditalTurnoRepository.save(turnoVagas);
-                
-                cand.setSituacao(SituacaoCandidato.CLASSIFICADO);
-                cand.setMotivoNaoClassificacao(null);
-                candidatoRepository.save(cand);
-                
-                int vagasRestantes = turnoVagas.getVagasClassificadoDisponiveis();
                 resultado = Map.of(
                         "sucesso", true,
                         "mensagem", "Candidato marcado como classificado com sucesso",
-                        "vagasDisponiveis", vagasRestantes,
+                        "vagasDisponiveis", realocacao.vagasDisponiveis(),
                         "campusNome", campus.getNome(),
-                        "turno", turno);
+                        "turno", turno,
+                        "tipoVaga", realocacao.tipoVaga().name(),
+                        "realocados", realocacao.movimentos());
                 return ResponseEntity.ok(resultado);
 
             } else if ("ELIMINADO".equals(situacaoNormalized)) {
@@ -453,10 +442,10 @@ public class CandidatoController {
                     return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Selecione um motivo antes de marcar como eliminado"));
                 }
 
-                cand.setSituacao(SituacaoCandidato.ELIMINADO);
-                cand.setMotivoNaoClassificacao(motivo);
-                candidatoRepository.save(cand);
-                return ResponseEntity.ok(Map.of("sucesso", true, "mensagem", "Candidato marcado como eliminado"));
+                // libera a vaga que ele ocupava para o primeiro da fila
+                var realocacao = realocacaoVagaService.sair(cand.getId(), SituacaoCandidato.ELIMINADO, motivo);
+                return ResponseEntity.ok(Map.of("sucesso", true, "mensagem", "Candidato marcado como eliminado",
+                        "realocados", realocacao.movimentos()));
 
             } else if ("CADASTRO_RESERVA".equals(situacaoNormalized)) {
                 // Marca o candidato como Cadastro de Reserva (suplente) e salva
@@ -476,29 +465,33 @@ public class CandidatoController {
                             .body(Map.of("sucesso", false, "mensagem", "Candidato não possui campus definido"));
                 }
 
-                // Verificar se existem vagas de cadastro de reserva configuradas
-                Integer vagasCadastroReserva = campus.getNumeroVagasCadastroReserva();
-                if (vagasCadastroReserva == null || vagasCadastroReserva <= 0) {
-                    logger.warn("Nenhuma vaga de cadastro de reserva disponível no campus {} para candidato {}",
-                            campus.getNome(), id);
+                // Ocupa uma vaga reservada do turno (contador reservado), pelas
+                // mesmas regras das demais marcações
+                String turno = candidato.getTurno() != null ? candidato.getTurno() : "UNICO";
+                var realocacao = realocacaoVagaService.reservar(candidato.getId());
+                if (realocacao.semTurno()) {
+                    return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Nenhuma vaga configurada para o turno '" + turno + "'"));
+                }
+                if (!realocacao.colocado()) {
+                    logger.warn("Nenhuma vaga de cadastro de reserva disponível no campus {} turno {} para candidato {}",
+                            campus.getNome(), turno, id);
                     resultado = Map.of(
                             "sucesso", false,
                             "mensagem",
                             "Não existem vagas de cadastro de reserva disponíveis no campus " + campus.getNome()
-                                    + ". Por favor, configure o número de vagas de reserva no cadastro do campus.",
+                                    + " para o turno " + turno + ".",
                             "campusNome", campus.getNome(),
+                            "turno", turno,
                             "vagasDisponiveis", 0);
                     return ResponseEntity.ok(resultado);
                 }
 
-                candidato.setTipoVaga(TipoVaga.RESERVADO);
-                candidato.setSituacao(SituacaoCandidato.HABILITADO);
-                candidato.setMotivoNaoClassificacao(null);
-                candidatoRepository.save(candidato);
                 resultado = Map.of(
                         "sucesso", true,
                         "mensagem", "Candidato marcado como cadastro de reserva com sucesso",
-                        "tipoVaga", "CADASTRO_RESERVA");
+                        "tipoVaga", "CADASTRO_RESERVA",
+                        "vagasDisponiveis", realocacao.vagasDisponiveis(),
+                        "realocados", realocacao.movimentos());
                 return ResponseEntity.ok(resultado);
 
             } else if ("HABILITADO".equals(situacaoNormalized)) {
@@ -522,57 +515,36 @@ public class CandidatoController {
                 if (campus == null)
                     return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Candidato não possui campus definido"));
                 
-                // Buscar vagas no CampusEditalTurno (novo sistema)
                 Edital edital = cand.getEdital();
                 if (edital == null) {
                     return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Candidato não possui edital definido"));
                 }
                 
-                com.example.energif.model.CampusEdital campusEdital = campusEditalRepository.findByCampusAndEdital(campus, edital);
-                if (campusEdital == null) {
-                    return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "CampusEdital não encontrado para este candidato"));
-                }
-                
-                // Buscar CampusEditalTurno pelo turno do candidato
                 String turno = cand.getTurno() != null ? cand.getTurno() : "UNICO";
-                com.example.energif.model.CampusEditalTurno turnoVagas = campusEditalTurnoRepository.findByCampusEditalAndTurno(campusEdital, turno);
-                
-                if (turnoVagas == null) {
+                // Ocupa a vaga de Habilitado do gênero: livre, ou a do último titular
+                // se o candidato se inscreveu antes dele (o titular desce um nível)
+                var realocacao = realocacaoVagaService.entrar(cand.getId(), SituacaoCandidato.HABILITADO);
+                if (realocacao.semTurno()) {
                     return ResponseEntity.ok(Map.of("sucesso", false, "mensagem", "Nenhuma vaga configurada para o turno '" + turno + "'"));
                 }
-                
-                // Validar se existe vaga de Habilitado disponível
-                int vagasDisponiveisHabilitado = turnoVagas.getVagasHabilitadoDisponiveis();
-                if (vagasDisponiveisHabilitado <= 0) {
+                if (!realocacao.colocado()) {
                     resultado = Map.of(
                             "sucesso", false,
                             "mensagem", "Não há vagas de Habilitado disponíveis no campus " + campus.getNome() + " para o turno " + turno,
                             "campusNome", campus.getNome(),
                             "turno", turno,
-                            "vagasDisponiveis", vagasDisponiveisHabilitado);
+                            "vagasDisponiveis", 0);
                     return ResponseEntity.ok(resultado);
                 }
 
-                // Consumir uma vaga de Habilitado (baseado no gênero do candidato)
-                Character genero = cand.getGenero();
-                if (com.example.energif.model.Genero.FEMININO.getCodigo().equals(genero)) {
-                    turnoVagas.setVagasHabilitadoFemininoOcupadas(turnoVagas.getVagasHabilitadoFemininoOcupadas() + 1);
-                } else {
-                    turnoVagas.setVagasHabilitadoMasculinoOcupadas(turnoVagas.getVagasHabilitadoMasculinoOcupadas() + 1);
-                }
-                campusEditalTurnoRepository.save(turnoVagas);
-                
-                cand.setSituacao(SituacaoCandidato.HABILITADO);
-                cand.setMotivoNaoClassificacao(null);
-                candidatoRepository.save(cand);
-                
-                int vagasRestantes = turnoVagas.getVagasHabilitadoDisponiveis();
                 resultado = Map.of(
                         "sucesso", true,
                         "mensagem", "Candidato marcado como habilitado com sucesso",
-                        "vagasDisponiveis", vagasRestantes,
+                        "vagasDisponiveis", realocacao.vagasDisponiveis(),
                         "campusNome", campus.getNome(),
-                        "turno", turno);
+                        "turno", turno,
+                        "tipoVaga", realocacao.tipoVaga().name(),
+                        "realocados", realocacao.movimentos());
                 return ResponseEntity.ok(resultado);
 
 
@@ -582,10 +554,9 @@ public class CandidatoController {
                 if (cand == null)
                     return ResponseEntity.badRequest()
                             .body(Map.of("sucesso", false, "mensagem", "Candidato não encontrado"));
-                cand.setSituacao(SituacaoCandidato.PENDENTE);
-                cand.setMotivoNaoClassificacao(null);
-                candidatoRepository.save(cand);
-                return ResponseEntity.ok(Map.of("sucesso", true, "mensagem", "Candidato marcado como pendente"));
+                var realocacao = realocacaoVagaService.sair(cand.getId(), SituacaoCandidato.PENDENTE, null);
+                return ResponseEntity.ok(Map.of("sucesso", true, "mensagem", "Candidato marcado como pendente",
+                        "realocados", realocacao.movimentos()));
 
             } else {
                 logger.warn("Situação inválida: {}", situacao);
@@ -620,42 +591,15 @@ public class CandidatoController {
             com.lowagie.text.pdf.PdfWriter.getInstance(doc, response.getOutputStream());
             doc.open();
 
-            // Se um campus específico foi solicitado
-            if (campusId != null) {
-                com.example.energif.model.Campus campus = campusRepository.findById(campusId).orElse(null);
-                java.util.List<com.example.energif.model.Candidato> candidatos;
-                
-                if (turno != null && !turno.isBlank()) {
-                    candidatos = candidatoRepository
-                            .findAllByCampusIdAndTurnoOrderByDataInscricaoAscHoraInscricao(campusId, turno);
-                } else {
-                    candidatos = candidatoRepository.findAllByCampusIdOrderByDataInscricaoAscHoraInscricao(campusId);
-                }
-
-                // Agrupar por campus para usar o serviço
-                java.util.Map<com.example.energif.model.Campus, java.util.List<com.example.energif.model.Candidato>> grouped = 
-                    java.util.Map.of(campus, candidatos);
-                java.util.List<com.example.energif.model.Campus> campusList = java.util.List.of(campus);
-                
-                relatorioService.gerarRelatorioPDF(doc, campusList, grouped, turno);
-            } else {
-                // Sem campus específico: gerar para todos
-                java.util.List<com.example.energif.model.Candidato> all = candidatoRepository.findAll(
-                        org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.ASC,
-                                "dataInscricao", "horaInscricao"));
-                
-                if (turno != null && !turno.isBlank()) {
-                    all = all.stream().filter(c -> c.getTurno() != null && turno.equals(c.getTurno())).toList();
-                }
-
-                java.util.Map<com.example.energif.model.Campus, java.util.List<com.example.energif.model.Candidato>> grouped = all
-                        .stream()
-                        .collect(java.util.stream.Collectors.groupingBy(com.example.energif.model.Candidato::getCampus,
-                                java.util.LinkedHashMap::new, java.util.stream.Collectors.toList()));
-
-                java.util.List<com.example.energif.model.Campus> campusList = new java.util.ArrayList<>(grouped.keySet());
-                relatorioService.gerarRelatorioPDF(doc, campusList, grouped, turno);
-            }
+            // Um campus ou todos, em ordem de inscrição, agrupados pelo nome do campus
+            String turnoFiltro = (turno != null && !turno.isBlank()) ? turno : null;
+            java.util.Map<String, java.util.List<com.example.energif.repository.CandidatoResumo>> porCampus =
+                    candidatoListagemService.listarOrdemInscricao(campusId, turnoFiltro)
+                    .stream()
+                    .collect(java.util.stream.Collectors.groupingBy(
+                            c -> c.campusNome() != null ? c.campusNome() : "Sem Campus",
+                            java.util.LinkedHashMap::new, java.util.stream.Collectors.toList()));
+            relatorioService.gerarRelatorioPDF(doc, porCampus, turno);
 
             doc.close();
 
@@ -701,27 +645,16 @@ public class CandidatoController {
             String situacaoFilter = (situacao != null && !situacao.isBlank()) ? situacao.trim() : null;
             String turnoNorm = (turno != null && !turno.isBlank()) ? turno.trim() : null;
 
-            // Build list of candidates
-            java.util.List<com.example.energif.model.Candidato> candidatos;
-            boolean usingFilters = (q != null && !q.isBlank()) || campusId != null || generoChar != null
-                    || (idadeNorm != null && !idadeNorm.isBlank()) || situacaoFilter != null || turnoNorm != null;
-
-            if (usingFilters) {
-                String qParam = (q != null && !q.isBlank()) ? q.trim().toLowerCase() : null;
-                org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 
-                        10000, org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.ASC, "nome"));
-                org.springframework.data.domain.Page<com.example.energif.model.Candidato> pageResult = 
-                        candidatoRepository.searchCombined(qParam, campusId, generoChar, idadeNorm, situacaoFilter, turnoNorm, pageable);
-                candidatos = pageResult.getContent();
-            } else {
-                candidatos = candidatoRepository.findAll(
-                        org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.ASC, "nome"));
-            }
+            // Build list of candidates (the report sorts them by name)
+            String qParam = (q != null && !q.isBlank()) ? q.trim().toLowerCase() : null;
+            java.util.List<com.example.energif.repository.CandidatoResumo> candidatos = candidatoListagemService
+                    .listarTodos(new com.example.energif.service.CandidatoListagemService.Filtros(qParam, campusId,
+                            generoChar, idadeNorm, situacaoFilter, turnoNorm));
 
             // Get edital description if there are candidatos
             String editalDescricao = "PROEXC nº 06/2024";
-            if (!candidatos.isEmpty() && candidatos.get(0).getEdital() != null) {
-                editalDescricao = candidatos.get(0).getEdital().getDescricao();
+            if (!candidatos.isEmpty() && candidatos.get(0).editalDescricao() != null) {
+                editalDescricao = candidatos.get(0).editalDescricao();
             }
 
             // Build PDF
@@ -742,4 +675,50 @@ public class CandidatoController {
         }
     }
 
+    // Export filtered candidates as CSV or XLSX, streamed from a database cursor
+    @GetMapping("/export")
+    public void exportar(
+            @RequestParam(name = "formato", required = false, defaultValue = "csv") String formato,
+            @RequestParam(name = "q", required = false) String q,
+            @RequestParam(name = "editalId", required = false) Long editalId,
+            @RequestParam(name = "campusId", required = false) Long campusId,
+            @RequestParam(name = "genero", required = false) String genero,
+            @RequestParam(name = "idade", required = false) String idade,
+            @RequestParam(name = "situacao", required = false) String situacao,
+            @RequestParam(name = "turno", required = false) String turno,
+            jakarta.servlet.http.HttpServletResponse response) {
+        boolean xlsx = "xlsx".equalsIgnoreCase(formato);
+        try {
+            String qParam = (q != null && !q.isBlank()) ? q.trim().toLowerCase() : null;
+            Character generoChar = (genero != null && !genero.isBlank()) ? genero.trim().toUpperCase().charAt(0) : null;
+            String idadeNorm = (idade != null && !idade.isBlank()) ? idade.trim() : null;
+            String situacaoFilter = (situacao != null && !situacao.isBlank()) ? situacao.trim() : null;
+            String turnoNorm = (turno != null && !turno.isBlank()) ? turno.trim() : null;
+            com.example.energif.service.CandidatoListagemService.Filtros filtros =
+                    new com.example.energif.service.CandidatoListagemService.Filtros(qParam, editalId, campusId,
+                            generoChar, idadeNorm, situacaoFilter, turnoNorm);
+
+            if (xlsx) {
+                response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+                response.setHeader("Content-Disposition", "attachment; filename=\"candidatos.xlsx\"");
+                exportacaoCandidatoService.exportarXlsx(filtros, response.getOutputStream());
+            } else {
+                response.setContentType("text/csv; charset=UTF-8");
+                response.setHeader("Content-Disposition", "attachment; filename=\"candidatos.csv\"");
+                exportacaoCandidatoService.exportarCsv(filtros, response.getOutputStream());
+            }
+
+        } catch (Exception e) {
+            logger.error("Erro ao exportar candidatos ({})", xlsx ? "xlsx" : "csv", e);
+            // depois que o download começou não dá mais para trocar a resposta por um erro
+            if (!response.isCommitted()) {
+                try {
+                    response.reset();
+                    response.sendError(500, "Erro ao exportar candidatos: " + e.getMessage());
+                } catch (java.io.IOException ex) {
+                }
+            }
+        }
+    }
+
 }
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 
 import com.example.energif.model.Motivo;
 import com.example.energif.repository.MotivoRepository;
+import com.example.energif.service.DadosReferenciaService;
 
 @Controller
 @RequestMapping("/motivos")
@@ -21,14 +22,16 @@ public class MotivoController {
     private static final Logger logger = LoggerFactory.getLogger(MotivoController.class);
 
     private final MotivoRepository motivoRepository;
+    private final DadosReferenciaService dadosReferenciaService;
 
-    public MotivoController(MotivoRepository motivoRepository) {
+    public MotivoController(MotivoRepository motivoRepository, DadosReferenciaService dadosReferenciaService) {
         this.motivoRepository = motivoRepository;
+        this.dadosReferenciaService = dadosReferenciaService;
     }
 
     @GetMapping({"/list", ""})
     public String list(Model model) {
-        model.addAttribute("motivos", motivoRepository.findAll());
+        model.addAttribute("motivos", dadosReferenciaService.motivos());
         return "motivos-list";
     }
 
@@ -42,6 +45,7 @@ public class MotivoController {
     public String save(@ModelAttribute Motivo motivo) {
         logger.info("Salvando motivo: {}", motivo);
         motivoRepository.save(motivo);
+        dadosReferenciaService.motivosAlterados();
         return "redirect:/motivos/list?success";
     }
 
@@ -56,6 +60,7 @@ public class MotivoController {
     public String excluir(@PathVariable("id") Long id) {
         try {
             motivoRepository.deleteById(id);
+            dadosReferenciaService.motivosAlterados();
             return "redirect:/motivos/list?deleted";
         } catch (DataIntegrityViolationException ex) {
             logger.error("Erro ao excluir motivo {}: {}", id, ex.getMessage());
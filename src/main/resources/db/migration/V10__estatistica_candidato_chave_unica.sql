@@ -0,0 +1,52 @@
+-- estatistica_candidato passa a ter uma linha por chave: os triggers somam a
+-- variação na linha existente (INSERT ... ON CONFLICT) em vez de acrescentar
+-- linhas que só eram consolidadas ao fim das importações. Assim as marcações
+-- de situação e as exclusões, que não passam pela importação, não fazem a
+-- leitura somar cada vez mais linhas por chave.
+--
+-- As chaves de um comando são gravadas em ordem, para que dois comandos
+-- concorrentes travem as linhas na mesma sequência.
+
+-- consolida o que já foi acumulado
+WITH removidas AS (DELETE FROM estatistica_candidato
+                   RETURNING edital_id, campus_id, turno, genero, situacao, total)
+INSERT INTO estatistica_candidato (edital_id, campus_id, turno, genero, situacao, total)
+SELECT edital_id, campus_id, turno, genero, situacao, sum(total) FROM removidas
+GROUP BY 1, 2, 3, 4, 5 HAVING sum(total) <> 0;
+
+-- as colunas da chave podem ser nulas (candidato sem turno, sem situação...)
+CREATE UNIQUE INDEX IF NOT EXISTS ux_estatistica_candidato_chave
+    ON estatistica_candidato (edital_id, campus_id, turno, genero, situacao) NULLS NOT DISTINCT;
+
+CREATE OR REPLACE FUNCTION energif_estatistica_candidato() RETURNS trigger
+    LANGUAGE plpgsql
+    AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO estatistica_candidato AS e (edital_id, campus_id, turno, genero, situacao, total)
+        SELECT n.edital_id, n.campus_id, n.turno, n.genero, n.situacao, count(*)
+        FROM novos n GROUP BY 1, 2, 3, 4, 5 ORDER BY 1, 2, 3, 4, 5
+        ON CONFLICT (edital_id, campus_id, turno, genero, situacao)
+        DO UPDATE SET total = e.total + EXCLUDED.total;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO estatistica_candidato AS e (edital_id, campus_id, turno, genero, situacao, total)
+        SELECT a.edital_id, a.campus_id, a.turno, a.genero, a.situacao, -count(*)
+        FROM antigos a GROUP BY 1, 2, 3, 4, 5 ORDER BY 1, 2, 3, 4, 5
+        ON CONFLICT (edital_id, campus_id, turno, genero, situacao)
+        DO UPDATE SET total = e.total + EXCLUDED.total;
+    ELSE
+        -- só entram as chaves que mudaram (ex.: situação); editar o nome não gera linha
+        INSERT INTO estatistica_candidato AS e (edital_id, campus_id, turno, genero, situacao, total)
+        SELECT d.edital_id, d.campus_id, d.turno, d.genero, d.situacao, sum(d.total)
+        FROM (SELECT n.edital_id, n.campus_id, n.turno, n.genero, n.situacao, 1 AS total FROM novos n
+              UNION ALL
+              SELECT a.edital_id, a.campus_id, a.turno, a.genero, a.situacao, -1 FROM antigos a) d
+        GROUP BY 1, 2, 3, 4, 5
+        HAVING sum(d.total) <> 0
+        ORDER BY 1, 2, 3, 4, 5
+        ON CONFLICT (edital_id, campus_id, turno, genero, situacao)
+        DO UPDATE SET total = e.total + EXCLUDED.total;
+    END IF;
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,26 @@
+-- A vaga reservada (cadastro de reserva) passa a usar numero_vagas_cadastro_reserva
+-- do turno, que é o número configurado na lista de campi; numero_vagas_reservado
+-- nunca foi preenchido pela aplicação.
+--
+-- Turnos ainda sem esse número herdam o do campus, que era o valor consultado
+-- na marcação antes de ela ir para o turno, e nenhum turno fica com menos vagas
+-- do que candidatos já marcados como cadastro de reserva.
+
+UPDATE campus_edital_turno t
+SET numero_vagas_cadastro_reserva = cp.numero_vagas_cadastro_reserva
+FROM campus_edital ce
+JOIN campus cp ON cp.id = ce.campus_id
+WHERE ce.id = t.campus_edital_id
+  AND coalesce(t.numero_vagas_cadastro_reserva, 0) = 0
+  AND coalesce(cp.numero_vagas_cadastro_reserva, 0) > 0;
+
+UPDATE campus_edital_turno t
+SET numero_vagas_cadastro_reserva = r.total
+FROM (SELECT t2.id, count(*) AS total
+      FROM candidato c
+      JOIN campus_edital ce ON ce.edital_id = c.edital_id AND ce.campus_id = c.campus_id
+      JOIN campus_edital_turno t2 ON t2.campus_edital_id = ce.id AND t2.turno = coalesce(c.turno, 'UNICO')
+      WHERE c.situacao = 'HABILITADO' AND c.tipo_vaga = 'RESERVADO'
+      GROUP BY t2.id) r
+WHERE r.id = t.id
+  AND coalesce(t.numero_vagas_cadastro_reserva, 0) < r.total;
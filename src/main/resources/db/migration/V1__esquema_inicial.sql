@@ -0,0 +1,97 @@
+-- Esquema existente antes da adoção do Flyway (gerado até então pelo
+-- hibernate ddl-auto=update). Bancos já em uso são marcados com baseline na
+-- versão 1 (spring.flyway.baseline-version) e não executam este script.
+
+CREATE TABLE IF NOT EXISTS campus (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome varchar(255) NOT NULL UNIQUE,
+    numero_vagas_reservadas integer,
+    numero_vagas_ampla_concorrencia integer,
+    numero_vagas_cadastro_reserva integer,
+    numero_vagas_classificado integer,
+    numero_vagas_habilitado integer,
+    vagas_reservadas_ocupadas integer,
+    vagas_ampla_ocupadas integer,
+    vagas_classificado_ocupadas integer,
+    vagas_habilitado_ocupadas integer
+);
+
+CREATE TABLE IF NOT EXISTS edital (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    numero_inscritos integer,
+    descricao varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS campus_edital (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campus_id bigint NOT NULL REFERENCES campus (id),
+    edital_id bigint NOT NULL REFERENCES edital (id),
+    numero_vagas_reservadas integer,
+    numero_vagas_ampla_concorrencia integer,
+    numero_vagas_cadastro_reserva integer,
+    UNIQUE (campus_id, edital_id)
+);
+
+CREATE TABLE IF NOT EXISTS campus_edital_turno (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campus_edital_id bigint NOT NULL REFERENCES campus_edital (id),
+    turno varchar(255) NOT NULL,
+    numero_vagas_reservadas integer,
+    numero_vagas_ampla_concorrencia integer,
+    numero_vagas_cadastro_reserva integer,
+    numero_vagas_classificado_masculino integer,
+    numero_vagas_classificado_feminino integer,
+    numero_vagas_habilitado_masculino integer,
+    numero_vagas_habilitado_feminino integer,
+    numero_vagas_reservado integer,
+    vagas_classificado_masculino_ocupadas integer,
+    vagas_classificado_feminino_ocupadas integer,
+    vagas_habilitado_masculino_ocupadas integer,
+    vagas_habilitado_feminino_ocupadas integer,
+    vagas_reservado_ocupadas integer,
+    vagas_reservadas_ocupadas integer,
+    vagas_ampla_ocupadas integer,
+    vagas_cadastro_reserva_ocupadas integer,
+    UNIQUE (campus_edital_id, turno)
+);
+
+CREATE SEQUENCE IF NOT EXISTS candidato_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS candidato (
+    id bigint PRIMARY KEY,
+    nome varchar(255),
+    cpf varchar(255),
+    data_nascimento date,
+    campus_id bigint REFERENCES campus (id),
+    turno varchar(255),
+    genero char(1),
+    data_inscricao date,
+    hora_inscricao time(6),
+    edital_id bigint REFERENCES edital (id),
+    situacao varchar(255),
+    motivo_nao_classificacao varchar(255),
+    tipo_vaga varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS motivo (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    descricao varchar(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS vaga (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campus_id bigint REFERENCES campus (id),
+    edital_id bigint REFERENCES edital (id),
+    quantidade integer,
+    quota_mulheres_classificadas integer,
+    vagas_classificados_masculino integer,
+    vagas_classificados_feminino integer,
+    vagas_habilitados_masculino integer,
+    vagas_habilitados_feminino integer,
+    vagas_reservadas integer,
+    ocupadas_classificados_masculino integer,
+    ocupadas_classificados_feminino integer,
+    ocupadas_habilitados_masculino integer,
+    ocupadas_habilitados_feminino integer,
+    ocupadas_reservadas integer
+);
@@ -0,0 +1,4 @@
+-- Candidato passa a reservar ids em blocos de 50 (allocationSize = 50 com o
+-- otimizador pooled do Hibernate). O incremento da sequence precisa ser igual
+-- ao allocationSize, senão o Hibernate recusa iniciar.
+ALTER SEQUENCE candidato_seq INCREMENT BY 50;
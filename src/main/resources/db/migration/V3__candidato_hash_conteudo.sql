@@ -0,0 +1,9 @@
+-- Importação em modo atualização: cada candidato importado assim guarda o hash
+-- do conteúdo da linha da planilha, e (cpf, edital) passa a identificar a
+-- inscrição. O índice é parcial porque bancos já em uso podem ter CPFs
+-- repetidos no mesmo edital, importados antes deste modo existir; essas
+-- linhas ficam com hash nulo e fora da restrição.
+ALTER TABLE candidato ADD COLUMN IF NOT EXISTS hash_conteudo varchar(32);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_candidato_cpf_edital
+    ON candidato (cpf, edital_id) WHERE hash_conteudo IS NOT NULL;
@@ -0,0 +1,5 @@
+-- Inscrição mais recente de um edital (marca da importação incremental) sem
+-- varrer os candidatos do edital; também atende listagens por ordem de
+-- inscrição dentro do edital.
+CREATE INDEX IF NOT EXISTS ix_candidato_edital_inscricao
+    ON candidato (edital_id, data_inscricao, hora_inscricao);
@@ -0,0 +1,23 @@
+-- Busca da listagem de candidatos (nome, campus ou CPF contendo o texto):
+-- LIKE '%...%' não usa índice btree, então cada pesquisa varria a tabela.
+-- Índices GIN de trigramas atendem LIKE com curinga dos dois lados; nome e
+-- campus são indexados já em minúsculas e sem acentos.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() não é IMMUTABLE (depende do dicionário configurado) e não pode
+-- ir direto num índice; fixando o dicionário, o resultado é estável.
+CREATE OR REPLACE FUNCTION energif_normalizar(texto text) RETURNS text
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+    AS $$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, texto)) $$;
+
+CREATE INDEX IF NOT EXISTS ix_candidato_nome_trgm
+    ON candidato USING gin (energif_normalizar(nome) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_candidato_cpf_trgm
+    ON candidato USING gin (cpf gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_campus_nome_trgm
+    ON campus USING gin (energif_normalizar(nome) gin_trgm_ops);
+
+-- candidatos de um campus (a busca por nome de campus vira campus_id = ANY(...))
+CREATE INDEX IF NOT EXISTS ix_candidato_campus
+    ON candidato (campus_id);
@@ -0,0 +1,5 @@
+-- Paginação por cursor da listagem (CandidatoListagemService): a ordem
+-- (data_inscricao, hora_inscricao, id), com nulos no fim, lida direto do
+-- índice a partir da posição do cursor, sem OFFSET.
+CREATE INDEX IF NOT EXISTS ix_candidato_ordem_inscricao
+    ON candidato ((COALESCE(data_inscricao, 'infinity'::date)), (COALESCE(hora_inscricao, '24:00'::time)), id);
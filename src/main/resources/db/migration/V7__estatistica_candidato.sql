@@ -0,0 +1,69 @@
+-- Contagem de candidatos por (edital, campus, turno, gênero, situação), mantida
+-- pelo próprio banco para que os totais da listagem não precisem de um GROUP BY
+-- sobre candidato a cada requisição.
+--
+-- Os triggers são por comando (tabelas de transição): cada INSERT/UPDATE/DELETE
+-- em candidato, inclusive os das importações em lote e da carga rápida, acrescenta
+-- uma linha de variação por chave afetada, na mesma transação. As linhas não são
+-- atualizadas no lugar, então importações concorrentes não disputam (nem travam)
+-- as mesmas linhas; o total de uma chave é a soma das suas linhas, e
+-- EstatisticaCandidatoService.compactar() as consolida depois das importações.
+CREATE TABLE IF NOT EXISTS estatistica_candidato (
+    edital_id bigint,
+    campus_id bigint,
+    turno varchar(255),
+    genero char(1),
+    situacao varchar(255),
+    total bigint NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_estatistica_candidato_campus
+    ON estatistica_candidato (campus_id);
+
+CREATE OR REPLACE FUNCTION energif_estatistica_candidato() RETURNS trigger
+    LANGUAGE plpgsql
+    AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO estatistica_candidato (edital_id, campus_id, turno, genero, situacao, total)
+        SELECT n.edital_id, n.campus_id, n.turno, n.genero, n.situacao, count(*)
+        FROM novos n GROUP BY 1, 2, 3, 4, 5;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO estatistica_candidato (edital_id, campus_id, turno, genero, situacao, total)
+        SELECT a.edital_id, a.campus_id, a.turno, a.genero, a.situacao, -count(*)
+        FROM antigos a GROUP BY 1, 2, 3, 4, 5;
+    ELSE
+        -- só entram as chaves que mudaram (ex.: situação); editar o nome não gera linha
+        INSERT INTO estatistica_candidato (edital_id, campus_id, turno, genero, situacao, total)
+        SELECT d.edital_id, d.campus_id, d.turno, d.genero, d.situacao, sum(d.total)
+        FROM (SELECT n.edital_id, n.campus_id, n.turno, n.genero, n.situacao, 1 AS total FROM novos n
+              UNION ALL
+              SELECT a.edital_id, a.campus_id, a.turno, a.genero, a.situacao, -1 FROM antigos a) d
+        GROUP BY 1, 2, 3, 4, 5
+        HAVING sum(d.total) <> 0;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- tabelas de transição exigem um trigger por evento
+DROP TRIGGER IF EXISTS tg_estatistica_candidato_insert ON candidato;
+CREATE TRIGGER tg_estatistica_candidato_insert
+    AFTER INSERT ON candidato REFERENCING NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION energif_estatistica_candidato();
+
+DROP TRIGGER IF EXISTS tg_estatistica_candidato_update ON candidato;
+CREATE TRIGGER tg_estatistica_candidato_update
+    AFTER UPDATE ON candidato REFERENCING OLD TABLE AS antigos NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION energif_estatistica_candidato();
+
+DROP TRIGGER IF EXISTS tg_estatistica_candidato_delete ON candidato;
+CREATE TRIGGER tg_estatistica_candidato_delete
+    AFTER DELETE ON candidato REFERENCING OLD TABLE AS antigos
+    FOR EACH STATEMENT EXECUTE FUNCTION energif_estatistica_candidato();
+
+-- carga inicial a partir dos candidatos existentes
+DELETE FROM estatistica_candidato;
+INSERT INTO estatistica_candidato (edital_id, campus_id, turno, genero, situacao, total)
+SELECT edital_id, campus_id, turno, genero, situacao, count(*)
+FROM candidato GROUP BY 1, 2, 3, 4, 5;
@@ -0,0 +1,21 @@
+-- Filtros da listagem em forma indexável.
+--
+-- O nome normalizado (minúsculas, sem acentos) passa a ser uma coluna gerada:
+-- o banco a mantém em todo INSERT/UPDATE, inclusive os da carga rápida e do
+-- modo atualização, e a busca por trigramas deixa de recalcular unaccent() em
+-- cada linha conferida pelo índice.
+ALTER TABLE candidato ADD COLUMN IF NOT EXISTS nome_normalizado text
+    GENERATED ALWAYS AS (energif_normalizar(nome)) STORED;
+
+DROP INDEX IF EXISTS ix_candidato_nome_trgm;
+CREATE INDEX IF NOT EXISTS ix_candidato_nome_normalizado_trgm
+    ON candidato USING gin (nome_normalizado gin_trgm_ops);
+
+-- Filtro de idade: a data limite é calculada pela aplicação e o filtro vira um
+-- intervalo em data_nascimento, sozinho ou combinado com o campus (este índice
+-- também atende campus_id sozinho, no lugar de ix_candidato_campus).
+CREATE INDEX IF NOT EXISTS ix_candidato_nascimento
+    ON candidato (data_nascimento);
+CREATE INDEX IF NOT EXISTS ix_candidato_campus_nascimento
+    ON candidato (campus_id, data_nascimento);
+DROP INDEX IF EXISTS ix_candidato_campus;
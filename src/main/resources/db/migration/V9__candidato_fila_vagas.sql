@@ -0,0 +1,21 @@
+-- Filas de vagas por edital/campus/turno para a realocação incremental
+-- (RealocacaoVagaService): quando um candidato sai ou volta à disputa, só os
+-- candidatos da fronteira mudam, e cada um é achado por uma busca no índice em
+-- vez de reler o turno inteiro.
+--
+-- Turno nulo vale 'UNICO', como na alocação e na marcação de situação.
+
+-- Titulares de vaga em ordem de inscrição: o último titular de um tipo é quem
+-- perde a vaga para um candidato inscrito antes dele. Candidatos fora da
+-- disputa que ainda guardam um tipo de vaga antigo não entram.
+CREATE INDEX IF NOT EXISTS ix_candidato_vaga_titular
+    ON candidato (edital_id, campus_id, (coalesce(turno, 'UNICO')), tipo_vaga,
+                  data_inscricao, hora_inscricao, id)
+    WHERE tipo_vaga IS NOT NULL AND situacao IN ('CLASSIFICADO', 'HABILITADO');
+
+-- Habilitados à espera (sem vaga ou só com a reservada), por gênero e ordem de
+-- inscrição: o primeiro da fila é quem sobe quando uma vaga se abre.
+CREATE INDEX IF NOT EXISTS ix_candidato_vaga_espera
+    ON candidato (edital_id, campus_id, (coalesce(turno, 'UNICO')), ((genero = 'F') IS TRUE),
+                  data_inscricao, hora_inscricao, id)
+    WHERE situacao = 'HABILITADO' AND (tipo_vaga IS NULL OR tipo_vaga = 'RESERVADO');
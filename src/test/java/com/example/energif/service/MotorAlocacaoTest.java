@@ -0,0 +1,157 @@
+package com.example.energif.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.energif.model.SituacaoCandidato;
+import com.example.energif.model.TipoVaga;
+import com.example.energif.service.MotorAlocacao.Capacidade;
+import com.example.energif.service.MotorAlocacao.Diferenca;
+import com.example.energif.service.MotorAlocacao.Instantaneo;
+import com.example.energif.service.MotorAlocacao.Ocupacao;
+import com.example.energif.service.MotorAlocacao.Resultado;
+
+/**
+ * Regras de {@link MotorAlocacao} sobre instantâneos montados à mão, sem banco.
+ */
+class MotorAlocacaoTest {
+
+	private static final Character M = 'M';
+	private static final Character F = 'F';
+
+	@Test
+	void classificadoSemVagaDesceParaHabilitadoReservadoEPendente() {
+		Instantaneo candidatos = new Instantaneo(4);
+		for (long id = 1; id <= 4; id++) {
+			candidatos.adicionar(id, M, SituacaoCandidato.CLASSIFICADO, null);
+		}
+
+		Resultado resultado = MotorAlocacao.alocar(candidatos, 0, 4, new Capacidade(1, 0, 1, 0, 1));
+
+		Diferenca d = resultado.diferenca();
+		assertEquals(4, d.tamanho());
+		assertMudou(d, 0, 1, SituacaoCandidato.CLASSIFICADO, TipoVaga.CLASSIFICADO_MASCULINO);
+		assertMudou(d, 1, 2, SituacaoCandidato.HABILITADO, TipoVaga.HABILITADO_MASCULINO);
+		assertMudou(d, 2, 3, SituacaoCandidato.HABILITADO, TipoVaga.RESERVADO);
+		assertMudou(d, 3, 4, SituacaoCandidato.PENDENTE, null);
+		assertEquals(new Ocupacao(1, 0, 1, 0, 1, 0), resultado.ocupacao());
+	}
+
+	@Test
+	void habilitadoSemVagaPerdeOTipo() {
+		Instantaneo candidatos = new Instantaneo(2);
+		candidatos.adicionar(1, M, SituacaoCandidato.HABILITADO, TipoVaga.HABILITADO_MASCULINO);
+		candidatos.adicionar(2, F, SituacaoCandidato.HABILITADO, TipoVaga.RESERVADO);
+
+		Resultado resultado = MotorAlocacao.alocar(candidatos, 0, 2, new Capacidade(0, 0, 0, 0, 0));
+
+		Diferenca d = resultado.diferenca();
+		assertEquals(2, d.tamanho());
+		assertMudou(d, 0, 1, SituacaoCandidato.HABILITADO, null);
+		assertMudou(d, 1, 2, SituacaoCandidato.HABILITADO, null);
+		assertEquals(Ocupacao.VAZIA, resultado.ocupacao());
+	}
+
+	@Test
+	void vagasPorGeneroNaoSeMisturam() {
+		Instantaneo candidatos = new Instantaneo(5);
+		candidatos.adicionar(1, M, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(2, M, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(3, F, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(4, F, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(5, F, SituacaoCandidato.HABILITADO, null);
+
+		// uma vaga de classificado por gênero, uma de habilitado só feminina e uma reservada
+		Resultado resultado = MotorAlocacao.alocar(candidatos, 0, 5, new Capacidade(1, 1, 0, 1, 1));
+
+		Diferenca d = resultado.diferenca();
+		// a habilitada 5 fica sem vaga, mas já estava sem tipo: não muda
+		assertEquals(4, d.tamanho());
+		assertMudou(d, 0, 1, SituacaoCandidato.CLASSIFICADO, TipoVaga.CLASSIFICADO_MASCULINO);
+		// homem sem vaga de classificado não pega a de habilitado feminina: vai para a reservada
+		assertMudou(d, 1, 2, SituacaoCandidato.HABILITADO, TipoVaga.RESERVADO);
+		assertMudou(d, 2, 3, SituacaoCandidato.CLASSIFICADO, TipoVaga.CLASSIFICADO_FEMININO);
+		assertMudou(d, 3, 4, SituacaoCandidato.HABILITADO, TipoVaga.HABILITADO_FEMININO);
+
+		Ocupacao ocupacao = resultado.ocupacao();
+		assertEquals(new Ocupacao(1, 1, 0, 1, 1, 0), ocupacao);
+		assertEquals(2, ocupacao.masculino());
+		assertEquals(2, ocupacao.feminino());
+	}
+
+	@Test
+	void reservadaOcupadaPorMulherContaNoFeminino() {
+		Instantaneo candidatos = new Instantaneo(2);
+		candidatos.adicionar(1, F, SituacaoCandidato.HABILITADO, null);
+		candidatos.adicionar(2, M, SituacaoCandidato.HABILITADO, null);
+
+		Ocupacao ocupacao = MotorAlocacao.alocar(candidatos, 0, 2, new Capacidade(0, 0, 0, 0, 2)).ocupacao();
+
+		assertEquals(new Ocupacao(0, 0, 0, 0, 2, 1), ocupacao);
+		assertEquals(1, ocupacao.feminino());
+		assertEquals(1, ocupacao.masculino());
+	}
+
+	@Test
+	void intervalosSaoAlocadosSeparadamente() {
+		// dois campus/turnos no mesmo instantâneo: [0, 3) e [3, 5)
+		Instantaneo candidatos = new Instantaneo(5);
+		candidatos.adicionar(1, M, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(2, M, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(3, M, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(4, M, SituacaoCandidato.CLASSIFICADO, null);
+		candidatos.adicionar(5, M, SituacaoCandidato.CLASSIFICADO, null);
+		Capacidade umaVaga = new Capacidade(1, 0, 0, 0, 0);
+
+		Resultado primeiro = MotorAlocacao.alocar(candidatos, 0, 3, umaVaga);
+		Resultado segundo = MotorAlocacao.alocar(candidatos, 3, 5, umaVaga);
+
+		// o primeiro do segundo intervalo tem vaga mesmo com o primeiro intervalo lotado
+		assertEquals(3, primeiro.diferenca().tamanho());
+		assertMudou(primeiro.diferenca(), 0, 1, SituacaoCandidato.CLASSIFICADO, TipoVaga.CLASSIFICADO_MASCULINO);
+		assertMudou(primeiro.diferenca(), 2, 3, SituacaoCandidato.PENDENTE, null);
+		assertEquals(2, segundo.diferenca().tamanho());
+		assertMudou(segundo.diferenca(), 0, 4, SituacaoCandidato.CLASSIFICADO, TipoVaga.CLASSIFICADO_MASCULINO);
+		assertMudou(segundo.diferenca(), 1, 5, SituacaoCandidato.PENDENTE, null);
+		assertEquals(3, segundo.diferenca().posicao(0));
+
+		Diferenca todas = Diferenca.juntar(List.of(primeiro.diferenca(), segundo.diferenca()));
+		assertEquals(5, todas.tamanho());
+		for (int i = 0; i < todas.tamanho(); i++) {
+			assertEquals(i, todas.posicao(i));
+			assertEquals(i + 1, todas.id(i));
+		}
+	}
+
+	@Test
+	void diferencaTrazSoQuemMudou() {
+		Instantaneo candidatos = new Instantaneo(4);
+		candidatos.adicionar(10, M, SituacaoCandidato.CLASSIFICADO, TipoVaga.CLASSIFICADO_MASCULINO);
+		candidatos.adicionar(20, F, SituacaoCandidato.PENDENTE, null);
+		candidatos.adicionar(30, F, null, TipoVaga.RESERVADO);
+		candidatos.adicionar(40, F, SituacaoCandidato.CLASSIFICADO, null);
+
+		Resultado resultado = MotorAlocacao.alocar(candidatos, 0, 4, new Capacidade(1, 1, 0, 0, 0));
+
+		// 10 já estava na vaga certa; 20 e 30 não disputam e mantêm o que tinham
+		Diferenca d = resultado.diferenca();
+		assertEquals(1, d.tamanho());
+		assertEquals(3, d.posicao(0));
+		assertMudou(d, 0, 40, SituacaoCandidato.CLASSIFICADO, TipoVaga.CLASSIFICADO_FEMININO);
+		// os valores anteriores continuam no instantâneo
+		assertEquals(SituacaoCandidato.CLASSIFICADO, candidatos.situacao(d.posicao(0)));
+		assertNull(candidatos.tipo(d.posicao(0)));
+		assertEquals(TipoVaga.RESERVADO, candidatos.tipo(2));
+		assertEquals(new Ocupacao(1, 1, 0, 0, 0, 0), resultado.ocupacao());
+	}
+
+	private static void assertMudou(Diferenca d, int i, long id, SituacaoCandidato situacao, TipoVaga tipo) {
+		assertEquals(id, d.id(i));
+		assertEquals(situacao, d.situacao(i));
+		assertEquals(tipo, d.tipo(i));
+	}
+}
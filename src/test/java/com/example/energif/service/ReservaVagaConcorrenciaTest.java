@@ -0,0 +1,163 @@
+package com.example.energif.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.energif.model.SituacaoCandidato;
+import com.example.energif.model.TipoVaga;
+import com.example.energif.repository.CampusEditalTurnoRepository;
+
+/**
+ * Várias marcações ao mesmo tempo no mesmo campus/turno não podem vender mais
+ * vagas do que o turno tem nem perder incrementos do contador.
+ */
+@SpringBootTest
+@Testcontainers
+class ReservaVagaConcorrenciaTest {
+
+	private static final int VAGAS = 5;
+	private static final int CONCORRENTES = 40;
+
+	@Container
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.3")
+			.withDatabaseName("energif_test")
+			.withUsername("postgres")
+			.withPassword("postgres");
+
+	@DynamicPropertySource
+	static void registerPgProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+		registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CampusEditalTurnoRepository campusEditalTurnoRepository;
+
+	@Autowired
+	private RealocacaoVagaService realocacaoVagaService;
+
+	@Test
+	void reservaAtomicaNaoPassaDoTotal() throws Exception {
+		long turnoId = criarTurno("Reserva atômica");
+
+		List<Boolean> reservas = emParalelo(CONCORRENTES, i -> () -> transactionTemplate
+				.execute(status -> campusEditalTurnoRepository.reservarVaga(turnoId, TipoVaga.CLASSIFICADO_MASCULINO)));
+
+		assertEquals(VAGAS, reservas.stream().filter(Boolean::booleanValue).count());
+		assertEquals(VAGAS, ocupadas(turnoId));
+	}
+
+	@Test
+	void marcacoesSimultaneasFicamComOsPrimeirosInscritos() throws Exception {
+		long turnoId = criarTurno("Marcações simultâneas");
+		List<Long> candidatos = criarCandidatos(turnoId, CONCORRENTES);
+
+		// em ordem inversa de inscrição, para forçar deslocamentos
+		List<Boolean> colocados = emParalelo(CONCORRENTES, i -> () -> realocacaoVagaService
+				.entrar(candidatos.get(CONCORRENTES - 1 - i), SituacaoCandidato.CLASSIFICADO).colocado());
+
+		assertTrue(colocados.stream().filter(Boolean::booleanValue).count() >= VAGAS);
+		assertEquals(VAGAS, ocupadas(turnoId));
+		List<Long> titulares = jdbcTemplate.queryForList(
+				"SELECT id FROM candidato WHERE campus_id = (SELECT ce.campus_id FROM campus_edital ce "
+						+ "JOIN campus_edital_turno t ON t.campus_edital_id = ce.id WHERE t.id = ?) "
+						+ "AND situacao = 'CLASSIFICADO' AND tipo_vaga = 'CLASSIFICADO_MASCULINO' ORDER BY id",
+				Long.class, turnoId);
+		assertEquals(candidatos.subList(0, VAGAS), titulares);
+	}
+
+	private interface Tarefa<T> {
+		Callable<T> para(int i);
+	}
+
+	private static <T> List<T> emParalelo(int n, Tarefa<T> tarefa) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(n);
+		try {
+			CountDownLatch largada = new CountDownLatch(1);
+			List<Future<T>> futuros = new ArrayList<>();
+			for (int i = 0; i < n; i++) {
+				Callable<T> c = tarefa.para(i);
+				futuros.add(executor.submit(() -> {
+					largada.await();
+					return c.call();
+				}));
+			}
+			largada.countDown();
+			List<T> resultados = new ArrayList<>();
+			for (Future<T> f : futuros) {
+				resultados.add(f.get(60, TimeUnit.SECONDS));
+			}
+			return resultados;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private long criarTurno(String nome) {
+		// campus.nome é único
+		Long campusId = jdbcTemplate.queryForObject("INSERT INTO campus (nome) VALUES (?) RETURNING id", Long.class,
+				nome + " " + UUID.randomUUID());
+		Long editalId = jdbcTemplate.queryForObject("INSERT INTO edital (descricao) VALUES (?) RETURNING id",
+				Long.class, nome);
+		Long campusEditalId = jdbcTemplate.queryForObject(
+				"INSERT INTO campus_edital (campus_id, edital_id) VALUES (?, ?) RETURNING id", Long.class, campusId,
+				editalId);
+		return jdbcTemplate.queryForObject("INSERT INTO campus_edital_turno (campus_edital_id, turno, "
+				+ "numero_vagas_classificado_masculino, numero_vagas_classificado_feminino, "
+				+ "numero_vagas_habilitado_masculino, numero_vagas_habilitado_feminino, numero_vagas_reservado, "
+				+ "vagas_classificado_masculino_ocupadas, vagas_classificado_feminino_ocupadas, "
+				+ "vagas_habilitado_masculino_ocupadas, vagas_habilitado_feminino_ocupadas, vagas_reservado_ocupadas) "
+				+ "VALUES (?, 'UNICO', ?, 0, 0, 0, 0, 0, 0, 0, 0, 0) RETURNING id", Long.class, campusEditalId, VAGAS);
+	}
+
+	/** Candidatos pendentes do turno, em ordem de inscrição. */
+	private List<Long> criarCandidatos(long turnoId, int n) {
+		List<Long> ids = new ArrayList<>();
+		LocalDate data = LocalDate.of(2024, 1, 10);
+		for (int i = 0; i < n; i++) {
+			ids.add(jdbcTemplate.queryForObject("INSERT INTO candidato (id, nome, campus_id, edital_id, genero, "
+					+ "situacao, data_inscricao, hora_inscricao) SELECT nextval('candidato_seq'), ?, ce.campus_id, "
+					+ "ce.edital_id, 'M', 'PENDENTE', ?, ? FROM campus_edital_turno t "
+					+ "JOIN campus_edital ce ON ce.id = t.campus_edital_id WHERE t.id = ? RETURNING id", Long.class,
+					"Candidato " + i, data, LocalTime.of(8, 0).plusMinutes(i), turnoId));
+		}
+		return ids;
+	}
+
+	private int ocupadas(long turnoId) {
+		return jdbcTemplate.queryForObject(
+				"SELECT vagas_classificado_masculino_ocupadas FROM campus_edital_turno WHERE id = ?", Integer.class,
+				turnoId);
+	}
+}
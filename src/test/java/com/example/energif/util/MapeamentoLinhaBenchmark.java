@@ -0,0 +1,277 @@
+package com.example.energif.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.energif.model.Campus;
+import com.example.energif.model.Candidato;
+import com.example.energif.model.SituacaoCandidato;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Compara o mapeamento de linhas da importação ({@link MapeadorLinhaCandidato})
+ * com o código que existia antes dele em {@code Filtro.mapRowToCandidato},
+ * reproduzido em {@link MapeamentoAnterior}. O resultado é por linha; o
+ * profiler de GC mostra a alocação ({@code gc.alloc.rate.norm}).
+ *
+ * Não roda no {@code mvn test}. Para executar:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.energif.util.MapeamentoLinhaBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapeamentoLinhaBenchmark {
+
+    private static final String[] CAMPI = { "Natal Central - Manhã", "Mossoró - Tarde", "Caicó / Noite",
+            "Pau dos Ferros - Manhã" };
+    private static final String[] SITUACOES = { "", "Classificado", "CLASSIFICADO", "Cadastro de Reserva" };
+
+    private Map<String, Integer> colunas;
+    private MapeadorLinhaCandidato mapeador;
+    private LinhaPlanilha[] linhas;
+    private int proxima;
+
+    @Setup
+    public void preparar() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        colunas = new HashMap<>();
+        colunas.put("timestamp", 0);
+        colunas.put("campus_turno", 1);
+        colunas.put("nome", 2);
+        colunas.put("genero", 3);
+        colunas.put("dataNascimento", 4);
+        colunas.put("cpf", 5);
+        colunas.put("situacao", 6);
+        colunas.put("motivo", 7);
+        mapeador = new MapeadorLinhaCandidato(colunas);
+
+        linhas = new LinhaPlanilha[1024];
+        double inscricao = DateUtil.getExcelDate(LocalDateTime.of(2025, 3, 10, 8, 0));
+        for (int i = 0; i < linhas.length; i++) {
+            LinhaPlanilha r = new LinhaPlanilha(i + 1);
+            double ts = inscricao + i / 1440.0;
+            r.adicionar(new LinhaPlanilha.Celula(0, "3/10/25 8:00", ts, true));
+            r.adicionar(new LinhaPlanilha.Celula(1, CAMPI[i % CAMPI.length], null, false));
+            r.adicionar(new LinhaPlanilha.Celula(2, "Candidata Número " + i + " da Silva", null, false));
+            r.adicionar(new LinhaPlanilha.Celula(3, i % 2 == 0 ? "Feminino" : "Masculino", null, false));
+            // maioria das datas de nascimento chega como texto dd/MM/yyyy
+            if (i % 4 == 0) {
+                double nasc = DateUtil.getExcelDate(LocalDate.of(1990 + i % 20, 1 + i % 12, 1 + i % 28));
+                r.adicionar(new LinhaPlanilha.Celula(4, "", nasc, true));
+            } else {
+                r.adicionar(new LinhaPlanilha.Celula(4,
+                        String.format("%02d/%02d/%d", 1 + i % 28, 1 + i % 12, 1990 + i % 20), null, false));
+            }
+            r.adicionar(new LinhaPlanilha.Celula(5, String.format("%03d.%03d.%03d-%02d", i % 1000, (i * 7) % 1000,
+                    (i * 13) % 1000, i % 100), null, false));
+            r.adicionar(new LinhaPlanilha.Celula(6, SITUACOES[i % SITUACOES.length], null, false));
+            linhas[i] = r;
+        }
+    }
+
+    private LinhaPlanilha proximaLinha() {
+        LinhaPlanilha r = linhas[proxima];
+        proxima = (proxima + 1) & (linhas.length - 1);
+        return r;
+    }
+
+    @Benchmark
+    public void atual(Blackhole bh) {
+        bh.consume(mapeador.mapear(proximaLinha()));
+    }
+
+    @Benchmark
+    public void anterior(Blackhole bh) {
+        bh.consume(MapeamentoAnterior.mapRowToCandidato(proximaLinha(), colunas));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MapeamentoLinhaBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    /** Cópia do mapeamento como era antes do {@link MapeadorLinhaCandidato}, só para comparação. */
+    static final class MapeamentoAnterior {
+
+        private static final Logger log = LoggerFactory.getLogger(MapeamentoAnterior.class);
+
+        static Candidato mapRowToCandidato(LinhaPlanilha r, Map<String, Integer> cols) {
+            String nome = getCellString(r, cols.get("nome"));
+            if (nome == null || nome.isBlank())
+                return null;
+
+            String rawCpf = getCellString(r, cols.get("cpf"));
+            String cpf = rawCpf;
+            if (cpf != null) {
+                cpf = cpf.replaceAll("\\D+", "");
+            }
+            if (rawCpf != null && !rawCpf.isBlank()) {
+                log.debug("Row {}: raw CPF='{}' -> sanitized='{}'", r.getRowNum(), rawCpf, cpf);
+            }
+
+            String generoStr = getCellString(r, cols.get("genero"));
+            Character genero = null;
+            if (generoStr != null && !generoStr.isBlank()) {
+                if (generoStr.toUpperCase().startsWith("M") || generoStr.equalsIgnoreCase("Masculino")) {
+                    genero = 'M';
+                } else if (generoStr.toUpperCase().startsWith("F") || generoStr.equalsIgnoreCase("Feminino")) {
+                    genero = 'F';
+                }
+            }
+
+            LocalDate dataNasc = getCellLocalDate(r, cols.get("dataNascimento"));
+
+            LocalDate dataInscricao = null;
+            LocalTime horaInscricao = null;
+            if (cols.containsKey("timestamp")) {
+                LinhaPlanilha.Celula tsCell = r.getCelula(cols.get("timestamp"));
+                if (tsCell != null && tsCell.isNumerica() && tsCell.isData()) {
+                    LocalDateTime ldt = tsCell.getDataHora();
+                    dataInscricao = ldt.toLocalDate();
+                    horaInscricao = ldt.toLocalTime();
+                }
+            }
+
+            String campusName = null;
+            String turno = null;
+            String v = getCellString(r, cols.get("campus_turno"));
+            log.debug("Row {}: Valor bruto campus_turno: '{}'", r.getRowNum(), v);
+            if (v != null) {
+                String[] parts = v.split("[-|,|/]", 2);
+                log.debug("Row {}: Split por separador [-|,|/]: {} partes -> ['{}', '{}']",
+                        r.getRowNum(), parts.length,
+                        parts.length > 0 ? parts[0] : "",
+                        parts.length > 1 ? parts[1] : "");
+                if (parts.length == 2) {
+                    campusName = parts[0].trim();
+                    turno = parts[1].trim();
+                } else {
+                    String[] ws = v.split("\\s{2,}|\\r?\\n");
+                    if (ws.length >= 2) {
+                        campusName = ws[0].trim();
+                        turno = ws[1].trim();
+                    } else {
+                        campusName = v.trim();
+                    }
+                }
+            }
+
+            Campus campus = null;
+            if (campusName != null && !campusName.isBlank()) {
+                campus = new Campus();
+                campus.setNome(campusName);
+            }
+
+            Candidato c = new Candidato();
+            c.setNome(nome);
+            c.setCpf(cpf);
+            c.setGenero(genero);
+            c.setDataNascimento(dataNasc);
+            c.setCampus(campus);
+            c.setTurno(turno);
+            c.setDataInscricao(dataInscricao);
+            c.setHoraInscricao(horaInscricao);
+            c.setSituacao(converterStringSituacao(getCellString(r, cols.get("situacao"))));
+            String motivo = getCellString(r, cols.get("motivo"));
+            if (motivo != null && !motivo.isBlank()) {
+                c.setMotivoNaoClassificacao(motivo);
+            }
+            log.debug("Candidato mapeado: {} - Gênero: {} - Campus: {}", nome, genero, campusName);
+            return c;
+        }
+
+        private static SituacaoCandidato converterStringSituacao(String str) {
+            if (str == null || str.isBlank()) {
+                return SituacaoCandidato.PENDENTE;
+            }
+            String normalized = str.trim().toUpperCase();
+            try {
+                return SituacaoCandidato.valueOf(normalized);
+            } catch (IllegalArgumentException e) {
+                log.debug("Situação '{}' não encontrada como enum exato, tentando aproximação", str);
+            }
+            for (SituacaoCandidato sit : SituacaoCandidato.values()) {
+                if (sit.getDescricao().equalsIgnoreCase(str)) {
+                    return sit;
+                }
+            }
+            return SituacaoCandidato.PENDENTE;
+        }
+
+        private static String getCellString(LinhaPlanilha r, Integer idx) {
+            if (idx == null)
+                return null;
+            LinhaPlanilha.Celula c = r.getCelula(idx);
+            if (c == null)
+                return null;
+            return c.getTexto() != null ? c.getTexto().trim() : "";
+        }
+
+        private static LocalDate getCellLocalDate(LinhaPlanilha r, Integer idx) {
+            LinhaPlanilha.Celula c = idx != null ? r.getCelula(idx) : null;
+            if (c == null)
+                return null;
+            if (c.isNumerica()) {
+                return c.getDataHora().toLocalDate();
+            }
+            String s = c.getTexto().trim();
+            try {
+                return LocalDate.parse(s);
+            } catch (Exception e1) {
+                log.debug("Não é formato ISO: {}", s);
+            }
+            for (String sep : new String[] { "/", "\\.", "-" }) {
+                try {
+                    String[] parts = s.split(sep);
+                    if (parts.length == 3) {
+                        int dia = Integer.parseInt(parts[0].trim());
+                        int mes = Integer.parseInt(parts[1].trim());
+                        int ano = Integer.parseInt(parts[2].trim());
+                        if (dia >= 1 && dia <= 31 && mes >= 1 && mes <= 12) {
+                            return LocalDate.of(ano, mes, dia);
+                        }
+                    }
+                } catch (Exception e) {
+                    log.debug("Falha ao parsear com separador '{}': {}", sep, e.getMessage());
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.energif.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Cadastro de reserva num turno criado e configurado pelas telas: a vaga
+ * reservada vem do número de cadastro de reserva do turno.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class CadastroReservaTest {
+
+	@Container
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.3")
+			.withDatabaseName("energif_test")
+			.withUsername("postgres")
+			.withPassword("postgres");
+
+	@DynamicPropertySource
+	static void registerPgProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+		registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void marcaCadastroReservaAteAsVagasDoTurno() throws Exception {
+		Turno turno = criarTurno("Cadastro de reserva", 1);
+		Long primeiro = criarCandidato(turno, LocalTime.of(8, 0));
+		Long segundo = criarCandidato(turno, LocalTime.of(9, 0));
+
+		mockMvc.perform(post("/candidatos/" + primeiro + "/habilitar").param("situacao", "CADASTRO_RESERVA"))
+				.andExpect(jsonPath("$.sucesso").value(true))
+				.andExpect(jsonPath("$.tipoVaga").value("CADASTRO_RESERVA"));
+		mockMvc.perform(post("/candidatos/" + segundo + "/habilitar").param("situacao", "CADASTRO_RESERVA"))
+				.andExpect(jsonPath("$.sucesso").value(false));
+
+		assertEquals("HABILITADO/RESERVADO", situacaoETipo(primeiro));
+		assertEquals(1, reservadasOcupadas(turno));
+	}
+
+	@Test
+	void alocacaoDoEditalMantemCadastroReserva() throws Exception {
+		Turno turno = criarTurno("Alocação com reserva", 1);
+		Long candidato = criarCandidato(turno, LocalTime.of(8, 0));
+		mockMvc.perform(post("/candidatos/" + candidato + "/habilitar").param("situacao", "CADASTRO_RESERVA"))
+				.andExpect(jsonPath("$.sucesso").value(true));
+
+		mockMvc.perform(post("/campus-edital-turno/alocar").param("editalId", turno.editalId().toString()))
+				.andExpect(jsonPath("$.sucesso").value(true))
+				.andExpect(jsonPath("$.alterados").value(0));
+
+		assertEquals("HABILITADO/RESERVADO", situacaoETipo(candidato));
+		assertEquals(1, reservadasOcupadas(turno));
+	}
+
+	@Test
+	void turnoNaoCadastradoNaoEhVagaLotada() throws Exception {
+		Turno turno = criarTurno("Turno não cadastrado", 1);
+		Long candidato = jdbcTemplate.queryForObject("INSERT INTO candidato (id, nome, campus_id, edital_id, genero, "
+				+ "situacao, turno, data_inscricao, hora_inscricao) VALUES (nextval('candidato_seq'), 'Noturno', ?, ?, "
+				+ "'F', 'PENDENTE', 'NOITE', ?, ?) RETURNING id", Long.class, turno.campusId(), turno.editalId(),
+				LocalDate.of(2024, 1, 10), LocalTime.of(8, 0));
+
+		for (String situacao : new String[] { "CLASSIFICADO", "HABILITADO", "CADASTRO_RESERVA" }) {
+			mockMvc.perform(post("/candidatos/" + candidato + "/habilitar").param("situacao", situacao))
+					.andExpect(jsonPath("$.sucesso").value(false))
+					.andExpect(jsonPath("$.mensagem").value("Nenhuma vaga configurada para o turno 'NOITE'"));
+		}
+		assertEquals("PENDENTE", jdbcTemplate.queryForObject("SELECT situacao FROM candidato WHERE id = ?",
+				String.class, candidato));
+	}
+
+	private record Turno(Long campusId, Long editalId, Long id) {
+	}
+
+	/** Turno UNICO criado e configurado como na lista de turnos e na lista de campi. */
+	private Turno criarTurno(String nome, int vagasCadastroReserva) throws Exception {
+		Long campusId = jdbcTemplate.queryForObject("INSERT INTO campus (nome) VALUES (?) RETURNING id", Long.class,
+				nome + " " + UUID.randomUUID());
+		Long editalId = jdbcTemplate.queryForObject("INSERT INTO edital (descricao) VALUES (?) RETURNING id",
+				Long.class, nome);
+		Long campusEditalId = jdbcTemplate.queryForObject(
+				"INSERT INTO campus_edital (campus_id, edital_id) VALUES (?, ?) RETURNING id", Long.class, campusId,
+				editalId);
+
+		mockMvc.perform(post("/campus-edital-turno/create")
+				.param("campusEditalId", campusEditalId.toString())
+				.param("turno", "UNICO")
+				.param("numeroVagasReservadas", "0")
+				.param("numeroVagasAmplaConcorrencia", "0"))
+				.andExpect(status().is3xxRedirection());
+		Long turnoId = jdbcTemplate.queryForObject(
+				"SELECT id FROM campus_edital_turno WHERE campus_edital_id = ? AND turno = 'UNICO'", Long.class,
+				campusEditalId);
+		mockMvc.perform(post("/campus/" + turnoId + "/editar-ajax")
+				.param("numeroVagasReservadas", "0")
+				.param("numeroVagasAmplaConcorrencia", "0")
+				.param("numeroVagasCadastroReserva", String.valueOf(vagasCadastroReserva)))
+				.andExpect(jsonPath("$.success").value(true));
+		return new Turno(campusId, editalId, turnoId);
+	}
+
+	private Long criarCandidato(Turno turno, LocalTime hora) {
+		return jdbcTemplate.queryForObject("INSERT INTO candidato (id, nome, campus_id, edital_id, genero, situacao, "
+				+ "turno, data_inscricao, hora_inscricao) VALUES (nextval('candidato_seq'), ?, ?, ?, 'M', 'PENDENTE', "
+				+ "'UNICO', ?, ?) RETURNING id", Long.class, "Candidato " + hora, turno.campusId(), turno.editalId(),
+				LocalDate.of(2024, 1, 10), hora);
+	}
+
+	private String situacaoETipo(Long candidatoId) {
+		return jdbcTemplate.queryForObject("SELECT situacao || '/' || tipo_vaga FROM candidato WHERE id = ?",
+				String.class, candidatoId);
+	}
+
+	private int reservadasOcupadas(Turno turno) {
+		return jdbcTemplate.queryForObject("SELECT vagas_reservado_ocupadas FROM campus_edital_turno WHERE id = ?",
+				Integer.class, turno.id());
+	}
+}